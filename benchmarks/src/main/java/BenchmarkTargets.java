@@ -0,0 +1,103 @@
+import java.util.SplittableRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Bridge between the simulator and the JMH benchmarks. The simulator classes live in the default package and are
+ * package-private, while JMH refuses benchmark classes in the default package - and a class in a named package
+ * cannot import from the default one. This class sits in the default package next to the simulator, builds the
+ * objects under test and hands each of them out as a JDK functional interface, which the benchmarks look up
+ * reflectively once per trial. One call of the returned supplier is one operation of the benchmark.
+ */
+
+public final class BenchmarkTargets {
+    private BenchmarkTargets() {}
+
+    /**
+     * The hold model: the queue is filled with `pending` events and every call removes the earliest one and
+     * schedules a new event an exponentially distributed time after it, so the number of pending events stays put.
+     */
+    public static DoubleSupplier eventQueueHold(String queueType, int pending, long seed) {
+        final EventQueue queue = EventQueue.createEventQueue(EventQueueType.fromName(queueType));
+        final SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < pending; i++) {
+            queue.insertEvent(EventType.ProcessArrival, ExponentialSampler.sample(random) * pending);
+        }
+        return () -> {
+            queue.returnAndRemoveHeadEvent();
+            double now = queue.getRemovedEventTime();
+            queue.insertEvent(EventType.ProcessArrival, now + ExponentialSampler.sample(random) * pending);
+            return now;
+        };
+    }
+
+    /**
+     * A ready queue holding `queued` processes: every call removes the head process and queues a new one. For PSJF
+     * the new process gets a random remaining time, so it lands anywhere in the heap.
+     */
+    public static IntSupplier readyQueueCycle(int schedulerType, int queued, long seed) {
+        final ProcessTable processTable = new ProcessTable();
+        final ProcessReadyQueue readyQueue = new ProcessReadyQueue(schedulerType, processTable);
+        final SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < queued; i++) {
+            readyQueue.insertProcess(processTable.createProcess(i, ExponentialSampler.sample(random)));
+        }
+        return () -> {
+            int p = readyQueue.returnAndRemoveHeadProcess();
+            processTable.releaseProcess(p);
+            readyQueue.insertProcess(processTable.createProcess(0, ExponentialSampler.sample(random)));
+            return p;
+        };
+    }
+
+    /**
+     * @return exponential variates with mean 1 from the ziggurat sampler used by the simulator
+     */
+    public static DoubleSupplier zigguratSampler(long seed) {
+        final SplittableRandom random = new SplittableRandom(seed);
+        return () -> ExponentialSampler.sample(random);
+    }
+
+    /**
+     * @return exponential variates with mean 1 by inversion, `-log(u)`, for comparison with the ziggurat
+     */
+    public static DoubleSupplier inversionSampler(long seed) {
+        final SplittableRandom random = new SplittableRandom(seed);
+        return () -> -Math.log(1.0 - random.nextDouble());
+    }
+
+    /**
+     * A full simulation, advanced one event per call. When the run reaches its stop condition (10,000 completions) a new run with
+     * the next seed is started, so the benchmark measures the whole life cycle of a run and not just its steady state.
+     * @return the number of events processed so far by the current run
+     */
+    public static LongSupplier simulation(int schedulerType, double lambda, double avgServiceTime, double quantum,
+                                          String queueType, long seed) {
+        final SimulationConfig config = new SimulationConfig(SchedulerType.fromSchedulerType(schedulerType),
+                lambda, avgServiceTime, quantum);
+        config.setEventQueueType(EventQueueType.fromName(queueType));
+        config.setSeed(seed);
+        return new LongSupplier() {
+            private Simulation simulation = newSimulation();
+
+            private Simulation newSimulation() {
+                Simulation s = new Simulation(config);
+                config.setSeed(config.getSeed() + 1);
+                s.start();
+                return s;
+            }
+
+            @Override
+            public long getAsLong() {
+                if (simulation.isFinished()) {
+                    simulation = newSimulation();
+                }
+                simulation.processNextEvent();
+                return simulation.getEventsProcessed();
+            }
+        };
+    }
+}
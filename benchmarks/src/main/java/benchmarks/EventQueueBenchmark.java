@@ -0,0 +1,39 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Insert and remove on each `EventQueue` implementation in the hold model, at pending-event counts from a lightly
+ * loaded run (16) to a badly overloaded RR run (65536). One operation is one remove plus one insert.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventQueueBenchmark {
+    @Param({"heap", "calendar", "ladder"})
+    public String queueType;
+
+    @Param({"16", "1024", "65536"})
+    public int pending;
+
+    private DoubleSupplier hold;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hold = Targets.get("eventQueueHold", queueType, pending, 42L);
+    }
+
+    @Benchmark
+    public double hold() {
+        return hold.getAsDouble();
+    }
+}
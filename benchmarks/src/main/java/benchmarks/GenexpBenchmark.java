@@ -0,0 +1,39 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Exponential sampling: the ziggurat sampler behind `genexp` against the inversion `-log(u)` it replaced.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GenexpBenchmark {
+    private DoubleSupplier ziggurat;
+    private DoubleSupplier inversion;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ziggurat = Targets.get("zigguratSampler", 42L);
+        inversion = Targets.get("inversionSampler", 42L);
+    }
+
+    @Benchmark
+    public double ziggurat() {
+        return ziggurat.getAsDouble();
+    }
+
+    @Benchmark
+    public double inversion() {
+        return inversion.getAsDouble();
+    }
+}
@@ -0,0 +1,39 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Remove-head plus insert on the `ProcessReadyQueue` of each scheduler: the remaining-time heap of PSJF and the
+ * FIFO ring of RR.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReadyQueueBenchmark {
+    @Param({"1", "2"})
+    public int schedulerType;
+
+    @Param({"16", "1024", "65536"})
+    public int queued;
+
+    private IntSupplier cycle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cycle = Targets.get("readyQueueCycle", schedulerType, queued, 42L);
+    }
+
+    @Benchmark
+    public int cycle() {
+        return cycle.getAsInt();
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Full PSJF and RR runs, reported as simulated events per second. Every invocation processes `EVENTS` events, so
+ * with `-prof gc` the `gc.alloc.rate.norm` column is the number of bytes allocated per event.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationBenchmark {
+    private static final int EVENTS = 1000;
+
+    @Param({"1", "2"})
+    public int schedulerType;
+
+    @Param({"5", "10", "15"})
+    public double lambda;
+
+    @Param({"0.01", "0.02"})
+    public double quantum;
+
+    @Param({"0.06"})
+    public double avgServiceTime;
+
+    @Param({"heap"})
+    public String queueType;
+
+    private LongSupplier simulation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulation = Targets.get("simulation", schedulerType, lambda, avgServiceTime, quantum, queueType, 42L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void events(Blackhole blackhole) {
+        for (int i = 0; i < EVENTS; i++) {
+            blackhole.consume(simulation.getAsLong());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Looks up the objects under test from `BenchmarkTargets`, which lives in the default package with the simulator
+ * and so cannot be referred to by name from here.
+ */
+
+final class Targets {
+    private Targets() {}
+
+    @SuppressWarnings("unchecked")
+    static <T> T get(String factory, Object... args) {
+        try {
+            Class<?> targets = Class.forName("BenchmarkTargets");
+            for (Method method : targets.getMethods()) {
+                if (method.getName().equals(factory) && method.getParameterCount() == args.length) {
+                    return (T) method.invoke(null, args);
+                }
+            }
+            throw new IllegalArgumentException("No benchmark target " + factory);
+        } catch (ClassNotFoundException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * What happens to an arrival when the system is overloaded:
+ *      - NONE: every arrival is admitted (up to the hard cap on live processes);
+ *      - REJECT: an arrival that finds `maxQueue` processes waiting is turned away (tail drop);
+ *      - DROP_OLDEST: an arrival that finds `maxQueue` processes waiting is admitted, and the waiting process that
+ *        arrived first is dropped to make room for it;
+ *      - TOKEN_BUCKET: arrivals are admitted at no more than `tokenRate` per unit of time on average, with bursts of
+ *        up to `tokenBurst`; an arrival that finds the bucket empty is turned away.
+ */
+
+enum AdmissionPolicy {
+    NONE("none"), REJECT("reject"), DROP_OLDEST("dropOldest"), TOKEN_BUCKET("tokenBucket");
+
+    private final String name;
+
+    AdmissionPolicy(String name) {
+        this.name = name;
+    }
+
+    static AdmissionPolicy fromName(String name) {
+        for (AdmissionPolicy p : values()) {
+            if (p.name.equalsIgnoreCase(name.trim())) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
+
+/**
+ * @author Jack Shendrikov
+ *
+ * Admission control of a `Simulation`: decides, before the process of an arrival is created, whether it enters the
+ * system, and under DROP_OLDEST picks the waiting process to drop. Whatever the policy, an arrival is rejected while
+ * `maxLive` processes are in the system, so the process table, the ready queues and the event queue stay bounded at
+ * any offered load and an overloaded run can be studied instead of running out of memory.
+ *
+ * To find the oldest waiting process, the live processes are kept in order of arrival in a ring of handles, each
+ * with the id it had when it arrived. An entry whose handle now holds another id (or none, once it was released)
+ * is stale and skipped; the ring is compacted when stale entries make up more than half of it, so it stays within
+ * twice the number of live processes.
+ */
+final class AdmissionControl {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final AdmissionPolicy policy;
+    private final int maxQueue;
+    private final int maxLive;
+    private final double tokenRate;
+    private final double tokenBurst;
+    private final ProcessTable processTable;
+
+    private double tokens;
+    private double lastRefill;
+    private long rejected;
+    private long dropped;
+
+    // DROP_OLDEST only: live processes in order of arrival
+    private int[] handles;
+    private long[] ids;
+    private int head;
+    private int size;
+
+    AdmissionControl(SimulationConfig config, ProcessTable processTable) {
+        this.policy = config.getAdmissionPolicy();
+        this.maxQueue = config.getMaxQueue();
+        this.maxLive = config.getMaxLive();
+        this.processTable = processTable;
+        if (policy == AdmissionPolicy.TOKEN_BUCKET) {
+            // by default the bucket lets through as much work as the cores can do
+            double rate = config.getTokenRate();
+            if (Double.isNaN(rate)) {
+                if (!(config.getAvgServiceTime() > 0)) {
+                    throw new IllegalArgumentException("tokenRate is needed when the average service time is unknown");
+                }
+                rate = config.getCores() / config.getAvgServiceTime();
+            }
+            tokenRate = rate;
+            tokenBurst = config.getTokenBurst();
+            tokens = tokenBurst;
+        } else {
+            tokenRate = 0;
+            tokenBurst = 0;
+        }
+        if (policy == AdmissionPolicy.DROP_OLDEST) {
+            handles = new int[INITIAL_CAPACITY];
+            ids = new long[INITIAL_CAPACITY];
+        }
+    }
+
+    AdmissionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Decides on an arrival at `now`, while `queued` processes wait and `live` are in the system. An arrival that
+     * is turned away is counted as rejected.
+     * @return false if the arrival is rejected
+     */
+    boolean admit(double now, int queued, int live) {
+        boolean admitted;
+        switch (policy) {
+            case REJECT:
+                admitted = queued < maxQueue;
+                break;
+            case TOKEN_BUCKET:
+                tokens = Math.min(tokenBurst, tokens + (now - lastRefill) * tokenRate);
+                lastRefill = now;
+                admitted = tokens >= 1;
+                if (admitted) {
+                    tokens -= 1;
+                }
+                break;
+            default:
+                admitted = true;
+                break;
+        }
+        admitted &= live < maxLive;
+        if (!admitted) {
+            rejected++;
+        }
+        return admitted;
+    }
+
+    /**
+     * @return true if a process must be dropped before the next arrival is admitted, with `queued` waiting
+     */
+    boolean mustDrop(int queued) {
+        return policy == AdmissionPolicy.DROP_OLDEST && queued >= maxQueue;
+    }
+
+    /**
+     * Notes that `p` entered the system.
+     */
+    void onAdmitted(int p) {
+        if (policy != AdmissionPolicy.DROP_OLDEST) {
+            return;
+        }
+        if (size == handles.length) {
+            if (2 * processTable.getLiveProcesses() <= size) {
+                compact();
+            } else {
+                grow();
+            }
+        }
+        int at = (head + size++) & (handles.length - 1);
+        handles[at] = p;
+        ids[at] = processTable.getId(p);
+    }
+
+    /**
+     * Takes the waiting process that arrived first out of the scheduler's ready queue and counts it as dropped.
+     * Processes on a CPU are not waiting and are passed over without looking for them in the ready queue. The
+     * caller releases the process.
+     * @return the dropped process, or `ProcessTable.NO_PROCESS` if no process is waiting
+     */
+    int dropOldest(SchedulerHooks scheduler) {
+        // stale entries at the front will never be needed again
+        while (size > 0 && isStale(head)) {
+            head = (head + 1) & (handles.length - 1);
+            size--;
+        }
+        for (int i = 0; i < size; i++) {
+            int at = (head + i) & (handles.length - 1);
+            if (!isStale(at) && !scheduler.isRunning(handles[at]) && scheduler.removeQueuedProcess(handles[at])) {
+                dropped++;
+                return handles[at];
+            }
+        }
+        return ProcessTable.NO_PROCESS;
+    }
+
+    long getRejected() {
+        return rejected;
+    }
+
+    long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Forgets the counts so far, when the warm-up period is over.
+     */
+    void resetStatistics() {
+        rejected = 0;
+        dropped = 0;
+    }
+
+    private boolean isStale(int at) {
+        return processTable.getId(handles[at]) != ids[at];
+    }
+
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int at = (head + i) & (handles.length - 1);
+            if (!isStale(at)) {
+                int to = (head + kept++) & (handles.length - 1);
+                handles[to] = handles[at];
+                ids[to] = ids[at];
+            }
+        }
+        size = kept;
+    }
+
+    private void grow() {
+        int[] biggerHandles = new int[handles.length << 1];
+        long[] biggerIds = new long[handles.length << 1];
+        for (int i = 0; i < size; i++) {
+            int at = (head + i) & (handles.length - 1);
+            biggerHandles[i] = handles[at];
+            biggerIds[i] = ids[at];
+        }
+        handles = biggerHandles;
+        ids = biggerIds;
+        head = 0;
+    }
+}
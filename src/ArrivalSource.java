@@ -0,0 +1,32 @@
+import java.io.Closeable;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Where the processes of a simulation come from: a Poisson process with exponential service times
+ * (`PoissonArrivals`), or a recorded trace (`TraceArrivals`). The simulation asks for one arrival ahead only - at
+ * every arrival it schedules the next one - so a source never has to hold more than one arrival in memory.
+ */
+
+interface ArrivalSource extends Closeable {
+
+    /**
+     * @return the time of the first arrival, or NaN if there is none
+     */
+    double firstArrivalTime();
+
+    /**
+     * Called at every arrival, in order, before `nextBurstTime()`.
+     * @return the time of the arrival after the one at `now`, or NaN if the source has no more arrivals
+     */
+    double nextArrivalTime(double now);
+
+    /**
+     * @return the CPU burst of the process arriving now
+     */
+    double nextBurstTime();
+
+    // a generated source holds no resources
+    @Override
+    default void close() {}
+}
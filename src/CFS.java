@@ -0,0 +1,181 @@
+import java.util.SplittableRandom;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Completely Fair Scheduler specialization class that inherits from abstract Scheduling Algorithm, modelled on the
+ * Linux scheduler. Every process accumulates virtual runtime - the CPU time it received, scaled by
+ * `NICE_0_WEIGHT / weight` - and the process with the least virtual runtime runs next, for a slice that is its share
+ * (by weight) of the target latency, but never shorter than the minimum granularity. Runnable processes are kept
+ * in a `VruntimeTree`, so picking the next process and queueing one are both O(log n).
+ *
+ * A new process starts at the smallest virtual runtime in the system, so it neither starves the others nor is
+ * starved by them. Arrivals do not preempt the running process: they wait at most until its slice ends. The slice
+ * is never longer than the remaining time, so a completion is known when the process is dispatched.
+ *
+ * The nice level of each new process is drawn uniformly from [minNice, maxNice] with its own random stream.
+ */
+
+class CFS extends SchedulingAlgorithm {
+    static final int NICE_0_WEIGHT = 1024;
+
+    // the weight of each nice level from -20 to 19, as in the Linux kernel (sched_prio_to_weight)
+    private static final int[] NICE_TO_WEIGHT = {
+            88761, 71755, 56483, 46273, 36291,
+            29154, 23254, 18705, 14949, 11916,
+            9548, 7620, 6100, 4904, 3906,
+            3121, 2501, 1991, 1586, 1277,
+            1024, 820, 655, 526, 423,
+            335, 272, 215, 172, 137,
+            110, 87, 70, 56, 45,
+            36, 29, 23, 18, 15,
+    };
+
+    private final VruntimeTree tree;
+    private final double targetLatency;
+    private final double minGranularity;
+    private final int minNice;
+    private final int maxNice;
+    private final SplittableRandom niceLevels;
+    private double minVruntime;
+
+    CFS(ProcessTable processTable, double targetLatency, double minGranularity, int minNice, int maxNice,
+        SplittableRandom niceLevels) {
+        super(processTable);
+        this.setSchedulerType(SchedulerType.CFS);
+        this.tree = new VruntimeTree(processTable);
+        this.targetLatency = targetLatency;
+        this.minGranularity = minGranularity;
+        this.minNice = minNice;
+        this.maxNice = maxNice;
+        this.niceLevels = niceLevels;
+    }
+
+    @Override
+    public void onArrival(int p, double now) {
+        processTable.setWeight(p, weightOf(nextNiceLevel()));
+        addProcessToReadyQueue(p);
+        if (!cpu.isBusy()) {
+            runNextProcess(now);
+        }
+    }
+
+    @Override
+    public void onCompletion(int payload, double now) {
+        int p = cpu.getMyProcess();
+        account(p, now - processTable.getRestartTime(p));
+        processTable.setRemainingCpuTime(p, 0);
+        context.completeProcess(p);
+        releaseCpu(now);
+    }
+
+    /**
+     * The slice of the running process is over: it is charged for it and goes back into the tree.
+     */
+    @Override
+    public void onTimeSlice(int payload, double now) {
+        int p = cpu.getMyProcess();
+        double ranFor = now - processTable.getRestartTime(p);
+        account(p, ranFor);
+        processTable.setRemainingCpuTime(p, processTable.getRemainingCpuTime(p) - ranFor);
+        if (eventLog != null) {
+            eventLog.record(LogRecordType.TIME_SLICE, now, p, 0);
+        }
+        addProcessToReadyQueue(p);
+        releaseCpu(now);
+    }
+
+    private void releaseCpu(double now) {
+        cpu.setMyProcess(ProcessTable.NO_PROCESS);
+        cpu.setBusy(false);
+        if (!isReadyQueueEmpty()) {
+            runNextProcess(now);
+        }
+    }
+
+    /**
+     * Runs the process with the least virtual runtime and schedules its completion or the end of its slice.
+     */
+    private void runNextProcess(double now) {
+        int p = getNextProcessForCPU();
+        cpu.setMyProcess(p);
+        cpu.setBusy(true);
+        checkIfReturningAndSetTimes(p, now);
+
+        double slice = timeSlice(p);
+        double remaining = processTable.getRemainingCpuTime(p);
+        if (remaining <= slice) {
+            eventQueue.insertEvent(EventType.ProcessCompletion, now + remaining, p);
+        } else {
+            eventQueue.insertEvent(EventType.TimeSliceOccurrence, now + slice, p);
+        }
+    }
+
+    /**
+     * @return the nice level of a new process, uniform over the configured range
+     */
+    private int nextNiceLevel() {
+        return minNice == maxNice ? minNice : minNice + niceLevels.nextInt(maxNice - minNice + 1);
+    }
+
+    static int weightOf(int nice) {
+        return NICE_TO_WEIGHT[Math.max(-20, Math.min(19, nice)) + 20];
+    }
+
+    /**
+     * Queues a runnable process. A process that has never run starts at the current minimum virtual runtime.
+     */
+    @Override
+    void addProcessToReadyQueue(int p) {
+        if (!processTable.isReturning(p)) {
+            processTable.setVruntime(p, Math.max(processTable.getVruntime(p), minVruntime));
+        }
+        tree.insert(p);
+    }
+
+    @Override
+    int getNextProcessForCPU() {
+        return tree.removeMin();
+    }
+
+    @Override
+    int safelyPeekAtNextProcess() {
+        return tree.peekMin();
+    }
+
+    @Override
+    boolean isReadyQueueEmpty() {
+        return tree.isEmpty();
+    }
+
+    @Override
+    int readyQueueSize() {
+        return tree.size();
+    }
+
+    /**
+     * @return how long `p`, just taken off the tree, may run: its weighted share of the scheduling period, where
+     * the period is the target latency, stretched so that no runnable process gets less than the minimum granularity
+     */
+    double timeSlice(int p) {
+        int running = tree.size() + 1;
+        double period = Math.max(targetLatency, running * minGranularity);
+        double weight = processTable.getWeight(p);
+        return period * weight / (tree.getTotalWeight() + weight);
+    }
+
+    /**
+     * Charges `p` for `ranFor` of CPU time and advances the minimum virtual runtime.
+     */
+    void account(int p, double ranFor) {
+        double vruntime = processTable.getVruntime(p) + ranFor * NICE_0_WEIGHT / processTable.getWeight(p);
+        processTable.setVruntime(p, vruntime);
+
+        double min = vruntime;
+        int leftmost = tree.peekMin();
+        if (leftmost != ProcessTable.NO_PROCESS) {
+            min = Math.min(min, processTable.getVruntime(leftmost));
+        }
+        minVruntime = Math.max(minVruntime, min);
+    }
+}
@@ -5,12 +5,26 @@
  *      - sets the start time if this is the first time the process has been serviced;
  *      - setting process' boolean flag `isReturning` from false to true, so the next time it would be ID'd as a returning process.
  *      - if CPU is working on a process, it sets its boolean flag `isBusy` to true.
+ *
+ * The process is held as its handle in the simulation's `ProcessTable`.
+ *
+ * In a multi-core run every core is a `CPU`, which also keeps its own busy time, the one event (completion or end
+ * of time slice) it is waiting for - with its handle, so a preemption can cancel it - and how many processes
+ * migrated to it from other cores.
  */
 
 public class CPU {
 
     private boolean isBusy;
-    private Process myProcess;
+    private int myProcess = ProcessTable.NO_PROCESS;
+
+    // multi-core runs only
+    private final CompensatedSum busyTime = new CompensatedSum();
+    private double busySince;
+    private EventType pendingEventType;    // null while the core is idle
+    private double pendingEventTime;
+    private long pendingEventHandle = EventQueue.NO_EVENT;
+    private long migrationsIn;
 
     CPU() {
         isBusy = false;
@@ -24,15 +38,58 @@ public class CPU {
         isBusy = busy;
     }
 
-    public void tick() {
-        this.myProcess.setRemainingCpuTime(this.myProcess.getRemainingCpuTime() - 0.01f);
-    }
-
-    Process getMyProcess() {
+    int getMyProcess() {
         return myProcess;
     }
 
-    void setMyProcess(Process myProcess) {
+    void setMyProcess(int myProcess) {
         this.myProcess = myProcess;
     }
+
+    void startBusy(double now) {
+        isBusy = true;
+        busySince = now;
+    }
+
+    void stopBusy(double now) {
+        isBusy = false;
+        busyTime.add(now - busySince);
+        pendingEventType = null;
+    }
+
+    /**
+     * @return the time this core has been busy up to `now`, including a busy period still in progress
+     */
+    double getBusyTime(double now) {
+        return busyTime.getSum() + (isBusy ? now - busySince : 0);
+    }
+
+    void setPendingEvent(EventType type, double time) {
+        pendingEventType = type;
+        pendingEventTime = time;
+    }
+
+    EventType getPendingEventType() {
+        return pendingEventType;
+    }
+
+    double getPendingEventTime() {
+        return pendingEventTime;
+    }
+
+    long getPendingEventHandle() {
+        return pendingEventHandle;
+    }
+
+    void setPendingEventHandle(long pendingEventHandle) {
+        this.pendingEventHandle = pendingEventHandle;
+    }
+
+    long getMigrationsIn() {
+        return migrationsIn;
+    }
+
+    void addMigrationIn() {
+        migrationsIn++;
+    }
 }
@@ -0,0 +1,178 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Calendar queue (R. Brown, 1988). Time is divided into "days" of a fixed `width`; a day is filed in bucket
+ * `day % nBuckets`, so one pass over all buckets covers a "year". Every bucket keeps its events in a sorted list,
+ * and the queue dequeues by walking the days of the current year from the day of the last removed event.
+ * When the bucket width matches the spacing of the events - which it does for Poisson arrivals - each bucket
+ * holds about one event of the current year, so insert and remove take O(1) amortized time.
+ *
+ * The queue resizes itself: it doubles the number of buckets when it holds more than two events per bucket and
+ * halves it when it holds fewer than one event per two buckets. On every resize the width is re-estimated from
+ * the average separation of the earliest pending events.
+ *
+ * Days are identified by `(long) (time / width)` rather than by accumulating bucket boundaries, so a rounding error
+ * can never put an event in a different day than the one it is looked up in.
+ */
+
+class CalendarEventQueue extends LinkedEventQueue {
+    private static final int MIN_BUCKETS = 16;
+    private static final int WIDTH_SAMPLE = 25;
+
+    private int[] bucketHeads;
+    private int nBuckets;
+    private double width;
+
+    private long currentDay;               // no pending event is earlier than this day
+    private int headBucket = NIL;          // bucket holding the earliest event, or NIL if not yet known
+    private final int[] sample = new int[WIDTH_SAMPLE];
+
+    CalendarEventQueue() {
+        nBuckets = MIN_BUCKETS;
+        width = 1.0;
+        bucketHeads = new int[nBuckets];
+        Arrays.fill(bucketHeads, NIL);
+    }
+
+    @Override
+    void insertNode(int node) {
+        placeNode(node);
+        headBucket = NIL;
+        if (size > 2 * nBuckets) {
+            resize(nBuckets * 2);
+        }
+    }
+
+    @Override
+    int removeHeadNode() {
+        int node = unlinkHead();
+        if (size < nBuckets / 2 && nBuckets > MIN_BUCKETS) {
+            resize(nBuckets / 2);
+        }
+        return node;
+    }
+
+    @Override
+    int peekHeadNode() {
+        return bucketHeads[locateHeadBucket()];
+    }
+
+    private long dayOf(double time) {
+        return (long) (time / width);
+    }
+
+    private void placeNode(int node) {
+        long day = dayOf(times[node]);
+        int bucket = (int) (day & (nBuckets - 1));
+        bucketHeads[bucket] = insertSorted(bucketHeads[bucket], node);
+        if (day < currentDay) {
+            currentDay = day;
+        }
+    }
+
+    private int unlinkHead() {
+        int bucket = locateHeadBucket();
+        int node = bucketHeads[bucket];
+        bucketHeads[bucket] = next[node];
+        headBucket = NIL;
+        return node;
+    }
+
+    /**
+     * Walks the days of the current year, starting at `currentDay`, until a bucket whose first event belongs to the
+     * day being looked at is found. If a whole year passes without one, the next event is far in the future and the
+     * bucket heads are searched directly.
+     */
+    private int locateHeadBucket() {
+        if (headBucket != NIL) {
+            return headBucket;
+        }
+        int mask = nBuckets - 1;
+        for (int i = 0; i < nBuckets; i++) {
+            long day = currentDay + i;
+            int bucket = (int) (day & mask);
+            int head = bucketHeads[bucket];
+            if (head != NIL && dayOf(times[head]) <= day) {
+                currentDay = day;
+                headBucket = bucket;
+                return bucket;
+            }
+        }
+
+        // direct search for the earliest bucket head
+        int best = NIL;
+        for (int bucket = 0; bucket < nBuckets; bucket++) {
+            int head = bucketHeads[bucket];
+            if (head != NIL && (best == NIL || before(head, bucketHeads[best]))) {
+                best = bucket;
+            }
+        }
+        currentDay = dayOf(times[bucketHeads[best]]);
+        headBucket = best;
+        return best;
+    }
+
+    private void resize(int newBuckets) {
+        double newWidth = estimateWidth();
+
+        // chain every node (the sampled ones are already unlinked) into one list and re-file them all
+        int chain = NIL;
+        for (int bucket = 0; bucket < nBuckets; bucket++) {
+            int node = bucketHeads[bucket];
+            while (node != NIL) {
+                int following = next[node];
+                next[node] = chain;
+                chain = node;
+                node = following;
+            }
+        }
+
+        nBuckets = newBuckets;
+        width = newWidth;
+        bucketHeads = new int[nBuckets];
+        Arrays.fill(bucketHeads, NIL);
+        currentDay = Long.MAX_VALUE;
+        headBucket = NIL;
+
+        while (chain != NIL) {
+            int following = next[chain];
+            placeNode(chain);
+            chain = following;
+        }
+        for (int i = 0; i < Math.min(size, WIDTH_SAMPLE); i++) {
+            placeNode(sample[i]);
+        }
+        if (size == 0) {
+            currentDay = 0;
+        }
+    }
+
+    /**
+     * Brown's heuristic: take the earliest events off the queue, average the gaps between them, average again
+     * ignoring gaps larger than twice that, and use three times the result as the new width. The sampled nodes are
+     * left unlinked in `sample` for `resize` to re-file.
+     */
+    private double estimateWidth() {
+        int k = Math.min(size, WIDTH_SAMPLE);
+        for (int i = 0; i < k; i++) {
+            sample[i] = unlinkHead();
+        }
+        if (k < 2) {
+            return width;
+        }
+        double avg = (times[sample[k - 1]] - times[sample[0]]) / (k - 1);
+        double sum = 0;
+        int count = 0;
+        for (int i = 1; i < k; i++) {
+            double gap = times[sample[i]] - times[sample[i - 1]];
+            if (gap <= 2 * avg) {
+                sum += gap;
+                count++;
+            }
+        }
+        double newWidth = count > 0 ? 3 * sum / count : 0;
+        return newWidth > 0 ? newWidth : width;
+    }
+}
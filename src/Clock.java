@@ -1,14 +1,14 @@
 /***
  * @author Jack Shendrikov
  *
- * `Clock` is shared throughout the simulation and only one value is valid, hence static simulation time.
+ * Each `Simulation` owns exactly one `Clock`, and only one value is valid for it at any time.
  *
  * A simple setter is provided, invoked in the main driving loop of the simulator. The clock time is obtained
  * from the head of the `EventQueue` (i.e., the earliest arriving event, which is "next" to be processed sequentially).
  */
 
 class Clock {
-    private static double simulationTime;
+    private double simulationTime;
 
     double getSimulationTime() {
         return simulationTime;
@@ -0,0 +1,32 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * A running sum with Neumaier's compensation: the low-order bits lost by each addition are collected in a separate
+ * term and added back when the sum is read. With a plain `double` a sum of 10^9 small times stops growing by
+ * their full value once it is large enough; the compensated sum stays exact to within a few ulps however many
+ * terms are added.
+ */
+
+final class CompensatedSum {
+    private double sum;
+    private double compensation;
+
+    void add(double value) {
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - t) + value;
+        } else {
+            compensation += (value - t) + sum;
+        }
+        sum = t;
+    }
+
+    double getSum() {
+        return sum + compensation;
+    }
+
+    void reset() {
+        sum = 0;
+        compensation = 0;
+    }
+}
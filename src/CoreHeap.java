@@ -0,0 +1,89 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * Indexed binary heap over the cores of a `MultiCoreEngine`, keyed by a number the engine keeps up to date with
+ * `setKey` - e.g. the length of a core's run queue. Every core is always in the heap, and the heap remembers where
+ * each core sits, so changing one core's key is O(log cores) and finding the least (or most) loaded core is O(1)
+ * instead of a scan over all cores.
+ */
+
+final class CoreHeap {
+    private final double[] keys;
+    private final int[] heap;        // core ids in heap order
+    private final int[] position;    // index of each core in `heap`
+    private final boolean largestFirst;
+
+    CoreHeap(int cores, boolean largestFirst) {
+        this.largestFirst = largestFirst;
+        keys = new double[cores];
+        heap = new int[cores];
+        position = new int[cores];
+        for (int c = 0; c < cores; c++) {
+            heap[c] = c;
+            position[c] = c;
+        }
+    }
+
+    /**
+     * @return the core with the smallest key, or the largest for a heap created with `largestFirst`
+     */
+    int peek() {
+        return heap[0];
+    }
+
+    double getKey(int core) {
+        return keys[core];
+    }
+
+    void setKey(int core, double key) {
+        double old = keys[core];
+        keys[core] = key;
+        if (before(key, old)) {
+            siftUp(position[core]);
+        } else {
+            siftDown(position[core]);
+        }
+    }
+
+    private boolean before(double a, double b) {
+        return largestFirst ? a > b : a < b;
+    }
+
+    private void siftUp(int hole) {
+        int core = heap[hole];
+        double key = keys[core];
+        while (hole > 0) {
+            int parent = (hole - 1) >>> 1;
+            if (!before(key, keys[heap[parent]])) {
+                break;
+            }
+            move(heap[parent], hole);
+            hole = parent;
+        }
+        move(core, hole);
+    }
+
+    private void siftDown(int hole) {
+        int core = heap[hole];
+        double key = keys[core];
+        int half = heap.length >>> 1;
+        while (hole < half) {
+            int child = 2 * hole + 1;
+            int right = child + 1;
+            if (right < heap.length && before(keys[heap[right]], keys[heap[child]])) {
+                child = right;
+            }
+            if (!before(keys[heap[child]], key)) {
+                break;
+            }
+            move(heap[child], hole);
+            hole = child;
+        }
+        move(core, hole);
+    }
+
+    private void move(int core, int index) {
+        heap[index] = core;
+        position[core] = index;
+    }
+}
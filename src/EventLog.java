@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * What happened to a process, as recorded in the `EventLog`. Stored as its ordinal in a single byte.
+ */
+
+enum LogRecordType {
+    ARRIVAL("arrival"), DISPATCH("dispatch"), PREEMPTION("preemption"), TIME_SLICE("timeslice"),
+    COMPLETION("completion"), DROP("drop");
+
+    private static final LogRecordType[] VALUES = values();
+
+    private final String name;
+
+    LogRecordType(String name) {
+        this.name = name;
+    }
+
+    static LogRecordType fromCode(byte code) {
+        return VALUES[code];
+    }
+
+    static LogRecordType fromName(String name) {
+        for (LogRecordType t : VALUES) {
+            if (t.name.equalsIgnoreCase(name)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
+
+/**
+ * @author Jack Shendrikov
+ *
+ * Optional binary log of every arrival, dispatch, preemption, end of a time slice, completion and drop of a run, for
+ * debugging a curve after the fact (`EventLogReader` filters and summarizes it). The file starts with a 16-byte
+ * header - the magic `SCHEDLOG`, the format version and the record size - followed by fixed-width 24-byte
+ * little-endian records:
+ *      0  double  simulation time
+ *      8  long    process id (the number of the process in order of arrival, from 0)
+ *     16  float   remaining CPU time of the process after the event
+ *     20  short   core (0 on a single CPU, -1 for an arrival that is not on a core yet)
+ *     22  byte    `LogRecordType` ordinal
+ *     23  byte    reserved
+ *
+ * Records are staged as three longs each - the time bits, the id, and the remaining time, core and type packed
+ * together exactly as they are laid out in the file - in one of two plain `long[]` buffers, so recording is three
+ * array stores. When a buffer is full the simulation hands it to a background thread, which bulk-copies it into a
+ * direct buffer and writes that to the file while the simulation fills the other one; only if the writer falls a
+ * whole buffer behind does the simulation wait for it.
+ */
+final class EventLog implements AutoCloseable {
+    static final byte[] MAGIC = {'S', 'C', 'H', 'E', 'D', 'L', 'O', 'G'};
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 24;
+    private static final int RECORD_LONGS = RECORD_BYTES / Long.BYTES;
+    private static final int BUFFER_RECORDS = 1 << 16;     // 1.5 MiB
+
+    private final ProcessTable processTable;
+    private final FileChannel channel;
+    private final BlockingQueue<long[]> full = new ArrayBlockingQueue<>(2);
+    private final BlockingQueue<long[]> free = new ArrayBlockingQueue<>(2);
+    private final Thread writer;
+    private volatile IOException writeError;
+
+    private long[] buffer = new long[BUFFER_RECORDS * RECORD_LONGS];
+    private int position;                  // in longs
+    private long records;
+    private boolean closed;
+
+    EventLog(String path, ProcessTable processTable) throws IOException {
+        this.processTable = processTable;
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+
+        free.add(new long[BUFFER_RECORDS * RECORD_LONGS]);
+        writer = new Thread(this::writeBuffers, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Appends one record for process `p` at `time`.
+     */
+    void record(LogRecordType type, double time, int p, int core) {
+        long[] b = buffer;
+        int at = position;
+        b[at] = Double.doubleToRawLongBits(time);
+        b[at + 1] = processTable.getId(p);
+        b[at + 2] = (Float.floatToRawIntBits((float) processTable.getRemainingCpuTime(p)) & 0xFFFFFFFFL)
+                | (core & 0xFFFFL) << 32 | (long) type.ordinal() << 48;
+        position = at + RECORD_LONGS;
+        records++;
+        if (position == b.length) {
+            handOff();
+        }
+    }
+
+    long getRecords() {
+        return records;
+    }
+
+    /**
+     * Writes the records still buffered, waits for the writer and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (position > 0) {
+            handOff();
+        }
+        try {
+            full.put(new long[0]);   // tells the writer to stop
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the event log");
+        } finally {
+            channel.close();
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    private void handOff() {
+        if (writeError != null) {
+            throw new UncheckedIOException("Writing the event log failed", writeError);
+        }
+        if (position < buffer.length) {
+            buffer = Arrays.copyOf(buffer, position);    // the last, partly filled buffer
+        }
+        try {
+            full.put(buffer);
+            buffer = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing the event log", e);
+        }
+        position = 0;
+    }
+
+    /**
+     * The writer thread: writes full buffers in order and gives them back, until it is handed an empty one.
+     */
+    private void writeBuffers() {
+        ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        LongBuffer longs = bytes.asLongBuffer();
+        try {
+            while (true) {
+                long[] b = full.take();
+                if (b.length == 0) {
+                    return;
+                }
+                longs.clear();
+                longs.put(b);
+                bytes.clear().limit(b.length * Long.BYTES);
+                try {
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                } catch (IOException e) {
+                    writeError = e;     // reported to the simulation at the next hand-off, records are dropped
+                }
+                free.put(b);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Reads an `EventLog` back: filters its records by time range, record type, process and core, optionally prints
+ * them, and summarizes them by time window - the count of every record type and the average turnaround time of the
+ * processes that completed in the window. Run as `java -jar ShenSchedule.jar log <file> [key=value ...]`:
+ *      from=<t>, to=<t>          - only records with from <= time < to
+ *      type=<type>[,<type>...]   - only these record types (arrival, dispatch, preemption, timeslice, completion,
+ *                                  drop)
+ *      process=<id>, core=<n>    - only records of this process or core
+ *      window=<t>                - length of the summary windows (default: one window over the whole range)
+ *      list                      - also print every matching record
+ *
+ * Like the trace reader it maps the file window by window, so logs larger than memory can be read.
+ */
+
+final class EventLogReader {
+    private static final long WINDOW_BYTES = (long) EventLog.RECORD_BYTES << 25;   // 768 MiB
+
+    private double from = Double.NEGATIVE_INFINITY;
+    private double to = Double.POSITIVE_INFINITY;
+    private final boolean[] types = new boolean[LogRecordType.values().length];
+    private long process = -1;
+    private int core = Integer.MIN_VALUE;
+    private double window = Double.NaN;
+    private boolean list;
+
+    // the summary: one row per window, grown as windows are reached
+    private long[][] counts = new long[16][];
+    private double[] turnaroundSums = new double[16];
+    private long[] turnaroundCounts = new long[16];
+    private int windows;
+    private double firstTime = Double.NaN;
+    private final Map<Long, Double> arrivals = new HashMap<>();   // processes that arrived and have not completed
+
+    private EventLogReader() {
+        Arrays.fill(types, true);
+    }
+
+    /**
+     * Runs the reader with the command line arguments that follow `log`.
+     */
+    static void run(String[] args, PrintStream out) throws IOException {
+        EventLogReader reader = new EventLogReader();
+        for (int i = 1; i < args.length; i++) {
+            reader.setOption(args[i]);
+        }
+        reader.read(args[0], out);
+        reader.printSummary(out);
+    }
+
+    private void setOption(String arg) {
+        int eq = arg.indexOf('=');
+        String key = eq < 0 ? arg : arg.substring(0, eq);
+        String value = eq < 0 ? "" : arg.substring(eq + 1).trim();
+        switch (key) {
+            case "from":
+                from = Double.parseDouble(value);
+                break;
+            case "to":
+                to = Double.parseDouble(value);
+                break;
+            case "type":
+                Arrays.fill(types, false);
+                for (String name : value.split(",")) {
+                    LogRecordType t = LogRecordType.fromName(name.trim());
+                    if (t == null) {
+                        throw new IllegalArgumentException("Unknown record type: " + name);
+                    }
+                    types[t.ordinal()] = true;
+                }
+                break;
+            case "process":
+                process = Long.parseLong(value);
+                break;
+            case "core":
+                core = Integer.parseInt(value);
+                break;
+            case "window":
+                window = Double.parseDouble(value);
+                if (!(window > 0)) {
+                    throw new IllegalArgumentException("window must be positive: " + value);
+                }
+                break;
+            case "list":
+                list = true;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+    }
+
+    private void read(String path, PrintStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(EventLog.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                continue;
+            }
+            header.flip();
+            boolean valid = header.remaining() == EventLog.HEADER_BYTES;
+            if (valid) {
+                byte[] magic = new byte[EventLog.MAGIC.length];
+                header.get(magic);
+                valid = Arrays.equals(magic, EventLog.MAGIC) && header.getInt() == EventLog.VERSION
+                        && header.getInt() == EventLog.RECORD_BYTES;
+            }
+            if (!valid) {
+                throw new IOException(path + " is not an event log of this version");
+            }
+            if (list) {
+                out.println("time,process,type,core,remaining");
+            }
+
+            long records = (size - EventLog.HEADER_BYTES) / EventLog.RECORD_BYTES;
+            long offset = EventLog.HEADER_BYTES;
+            long end = offset + records * EventLog.RECORD_BYTES;
+            while (offset < end) {
+                long length = Math.min(WINDOW_BYTES, end - offset);
+                MappedByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                b.order(ByteOrder.LITTLE_ENDIAN);
+                for (int at = 0; at < length; at += EventLog.RECORD_BYTES) {
+                    accept(b.getDouble(at), b.getLong(at + 8), b.getFloat(at + 16), b.getShort(at + 20),
+                            LogRecordType.fromCode(b.get(at + 22)), out);
+                }
+                offset += length;
+            }
+        }
+    }
+
+    private void accept(double time, long id, float remaining, int recordCore, LogRecordType type, PrintStream out) {
+        if (time < from || time >= to || (process >= 0 && id != process)) {
+            return;
+        }
+        // turnaround times need the arrival, whatever the type and core filters
+        double turnaround = Double.NaN;
+        if (type == LogRecordType.ARRIVAL) {
+            arrivals.put(id, time);
+        } else if (type == LogRecordType.COMPLETION) {
+            Double arrival = arrivals.remove(id);
+            if (arrival != null) {
+                turnaround = time - arrival;
+            }
+        } else if (type == LogRecordType.DROP) {
+            arrivals.remove(id);
+        }
+        if (!types[type.ordinal()] || (core != Integer.MIN_VALUE && recordCore != core)) {
+            return;
+        }
+
+        if (list) {
+            out.println(time + "," + id + "," + type + "," + recordCore + "," + remaining);
+        }
+        if (Double.isNaN(firstTime)) {
+            firstTime = from > Double.NEGATIVE_INFINITY ? from : time;
+        }
+        int w = Double.isNaN(window) ? 0 : (int) ((time - firstTime) / window);
+        while (w >= windows) {
+            if (windows == counts.length) {
+                counts = Arrays.copyOf(counts, windows * 2);
+                turnaroundSums = Arrays.copyOf(turnaroundSums, windows * 2);
+                turnaroundCounts = Arrays.copyOf(turnaroundCounts, windows * 2);
+            }
+            counts[windows++] = new long[types.length];
+        }
+        counts[w][type.ordinal()]++;
+        if (!Double.isNaN(turnaround)) {
+            turnaroundSums[w] += turnaround;
+            turnaroundCounts[w]++;
+        }
+    }
+
+    private void printSummary(PrintStream out) {
+        StringBuilder sb = new StringBuilder("window_start");
+        for (LogRecordType t : LogRecordType.values()) {
+            sb.append(',').append(t);
+        }
+        out.println(sb.append(",avg_turnaround"));
+        for (int w = 0; w < windows; w++) {
+            sb.setLength(0);
+            sb.append(Double.isNaN(window) ? firstTime : firstTime + w * window);
+            for (long c : counts[w]) {
+                sb.append(',').append(c);
+            }
+            sb.append(',').append(turnaroundCounts[w] > 0 ? turnaroundSums[w] / turnaroundCounts[w] : Double.NaN);
+            out.println(sb);
+        }
+    }
+}
@@ -1,42 +1,111 @@
-import java.util.Comparator;
-import java.util.Objects;
-import java.util.PriorityQueue;
-
 /***
  * @author Jack Shendrikov
+ *
+ * Selects the implementation of the pending event set used by a simulation.
  */
 
-public class EventQueue {
-    private static PriorityQueue<Event> priorityQueue;
+enum EventQueueType {
+    HEAP("heap"), CALENDAR("calendar"), LADDER("ladder");
+
+    private final String name;
 
-    EventQueue() {
-        Comparator<Event> comparator = new EventTimeComparator();
-        priorityQueue = new PriorityQueue<>(10, comparator);
+    EventQueueType(String name) {
+        this.name = name;
     }
 
-    void insertEvent(Event e) {
-        priorityQueue.add(e);
+    /**
+     * @return the event queue type with the given name (as used on the command line), or null if there is none
+     */
+    static EventQueueType fromName(String name) {
+        for (EventQueueType t : values()) {
+            if (t.name.equalsIgnoreCase(name)) {
+                return t;
+            }
+        }
+        return null;
     }
 
-    // Retrieve and Remove head of queue
-    Event returnAndRemoveHeadEvent() {
-        return priorityQueue.poll();
+    @Override
+    public String toString() {
+        return name;
     }
+}
+
+/***
+ * @author Jack Shendrikov
+ *
+ * The pending event set: events ordered by the time at which they occur. Events with equal times are returned in
+ * the order they were inserted, so every implementation produces exactly the same sequence of events for the same
+ * sequence of inserts and removals - they can be swapped for one another without changing the results of a run.
+ *
+ * No event objects are created: an event is a type, a time and an int payload. Removing the head returns its type
+ * and keeps its time and payload available through `getRemovedEventTime()` and `getRemovedEventPayload()` until
+ * the next removal.
+ *
+ * Inserting an event returns a handle to it, with which a pending event can be cancelled or moved to another time
+ * in O(log n). A handle is the event's slot in the queue with a generation stamp in the upper 32 bits; the stamp
+ * changes whenever the slot is reused, so a handle to an event that has already been removed or cancelled is
+ * recognized as stale and never touches the event now in its slot.
+ */
+
+interface EventQueue {
+    long NO_EVENT = -1;
+
+    long insertEvent(EventType eventType, double eventTime);
 
-    Event safelyPeekAtNextEvent() {
-        return priorityQueue.peek();
+    long insertEvent(EventType eventType, double eventTime, int payload);
+
+    /**
+     * Withdraws a pending event.
+     * @return false if the event of `handle` is no longer pending: it was removed or cancelled before
+     */
+    boolean cancel(long handle);
+
+    /**
+     * Moves a pending event to `newTime`. Among events with equal times it then counts as inserted last.
+     * @return the handle of the event from now on
+     * @throws IllegalArgumentException if the event of `handle` is no longer pending
+     */
+    long reschedule(long handle, double newTime);
+
+    // Retrieve and Remove head of queue, or null if no event is pending
+    EventType returnAndRemoveHeadEvent();
+
+    /**
+     * @return the type of the next event, or null if no event is pending
+     */
+    EventType safelyPeekAtNextEvent();
+
+    /**
+     * @return the time of the next event, or positive infinity if no event is pending
+     */
+    double safelyPeekAtNextEventTime();
+
+    double getRemovedEventTime();
+
+    int getRemovedEventPayload();
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
     }
 
-    double getSystemTimeFromHead() {
-        return Objects.requireNonNull(priorityQueue.peek()).getEventTime();
+    default double getSystemTimeFromHead() {
+        if (isEmpty()) {
+            throw new IllegalStateException("No pending events");
+        }
+        return safelyPeekAtNextEventTime();
     }
 
-    @Override
-    public String toString() {
-        StringBuilder s = new StringBuilder();
-        for (Event e : priorityQueue) {
-            s.append(e.toString()).append(" | ");
+    static EventQueue createEventQueue(EventQueueType type) {
+        switch (type) {
+            case CALENDAR:
+                return new CalendarEventQueue();
+            case LADDER:
+                return new LadderEventQueue();
+            default:
+                return new HeapEventQueue();
         }
-        return s.toString();
     }
 }
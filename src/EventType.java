@@ -0,0 +1,35 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * The kinds of event the simulator handles. The `EventQueue` stores an event's type as its ordinal in a
+ * `byte[]` column, so `fromCode` maps it back without allocating anything.
+ */
+
+enum EventType {
+    ProcessArrival("ProcessArrival"),
+    ProcessCompletion("ProcessCompletion"),
+    TimeSliceOccurrence("TimeSliceOccurrence"),
+    LoadBalance("LoadBalance"),            // periodic push migration between the run queues of a multi-core run
+    PriorityBoost("PriorityBoost");        // MLFQ: periodic move of all processes to the top level
+
+    private static final EventType[] VALUES = values();
+
+    private final String eventType;
+
+    EventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    byte getCode() {
+        return (byte) ordinal();
+    }
+
+    static EventType fromCode(byte code) {
+        return VALUES[code];
+    }
+
+    @Override
+    public String toString() {
+        return eventType;
+    }
+}
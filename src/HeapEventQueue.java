@@ -0,0 +1,242 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Array-backed 4-ary min-heap over parallel columns - `double[]` times, `long[]` insertion sequence numbers,
+ * `byte[]` event types and `int[]` payloads - so inserting and removing events allocates nothing once the arrays
+ * have grown to the largest number of pending events of the run. A 4-ary heap is half as deep as a binary one and
+ * the four children of a node sit next to each other in the `times` array, so a sift-down touches fewer cache lines.
+ *
+ * Events are ordered by time, then by insertion sequence, which makes equal timestamps come out first-in first-out.
+ *
+ * The heap is indexed: every pending event has an id, `ids` maps a heap slot to the id of the event in it and
+ * `slots` maps the id back to the slot, so the event of a handle is found in O(1) and cancelled or rescheduled with
+ * one sift. Ids are recycled through a free list, and `generations` tells a recycled id from the one a handle was
+ * given for.
+ */
+
+class HeapEventQueue implements EventQueue {
+    private static final int ARITY = 4;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NOT_PENDING = -1;
+
+    private double[] times;
+    private long[] seqs;
+    private byte[] types;
+    private int[] payloads;
+    private int[] ids;
+    private int size;
+    private long nextSeq;
+
+    // indexed by event id
+    private int[] slots;
+    private int[] generations;
+    private int[] freeIds;
+    private int freeCount;
+    private int allocatedIds;
+
+    private double removedEventTime;
+    private int removedEventPayload;
+
+    HeapEventQueue() {
+        times = new double[INITIAL_CAPACITY];
+        seqs = new long[INITIAL_CAPACITY];
+        types = new byte[INITIAL_CAPACITY];
+        payloads = new int[INITIAL_CAPACITY];
+        ids = new int[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY];
+        generations = new int[INITIAL_CAPACITY];
+        freeIds = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public long insertEvent(EventType eventType, double eventTime) {
+        return insertEvent(eventType, eventTime, -1);
+    }
+
+    @Override
+    public long insertEvent(EventType eventType, double eventTime, int payload) {
+        if (size == times.length) {
+            grow();
+        }
+        int id = freeCount > 0 ? freeIds[--freeCount] : allocatedIds++;
+        siftUp(size++, eventTime, nextSeq++, eventType.getCode(), payload, id);
+        return ((long) generations[id] << 32) | id;
+    }
+
+    @Override
+    public EventType returnAndRemoveHeadEvent() {
+        if (size == 0) {
+            return null;
+        }
+        EventType head = EventType.fromCode(types[0]);
+        removedEventTime = times[0];
+        removedEventPayload = payloads[0];
+        removeSlot(0);
+        return head;
+    }
+
+    @Override
+    public boolean cancel(long handle) {
+        int id = pendingId(handle);
+        if (id == NOT_PENDING) {
+            return false;
+        }
+        removeSlot(slots[id]);
+        return true;
+    }
+
+    @Override
+    public long reschedule(long handle, double newTime) {
+        int id = pendingId(handle);
+        if (id == NOT_PENDING) {
+            throw new IllegalArgumentException("Event is no longer pending: " + handle);
+        }
+        int slot = slots[id];
+        byte type = types[slot];
+        int payload = payloads[slot];
+        // the new sequence number is the largest, so the event can only have to move up if it moved earlier
+        if (newTime >= times[slot]) {
+            siftDown(slot, newTime, nextSeq++, type, payload, id);
+        } else {
+            siftUp(slot, newTime, nextSeq++, type, payload, id);
+        }
+        return handle;
+    }
+
+    @Override
+    public EventType safelyPeekAtNextEvent() {
+        return size == 0 ? null : EventType.fromCode(types[0]);
+    }
+
+    @Override
+    public double safelyPeekAtNextEventTime() {
+        return size == 0 ? Double.POSITIVE_INFINITY : times[0];
+    }
+
+    @Override
+    public double getRemovedEventTime() {
+        return removedEventTime;
+    }
+
+    @Override
+    public int getRemovedEventPayload() {
+        return removedEventPayload;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the id of the event of `handle`, or `NOT_PENDING` if the handle is stale
+     */
+    private int pendingId(long handle) {
+        int id = (int) handle;
+        if (id < 0 || id >= allocatedIds || generations[id] != (int) (handle >>> 32) || slots[id] == NOT_PENDING) {
+            return NOT_PENDING;
+        }
+        return id;
+    }
+
+    /**
+     * Frees the id of the event in `slot` and fills the slot with the last event of the heap.
+     */
+    private void removeSlot(int slot) {
+        int id = ids[slot];
+        slots[id] = NOT_PENDING;
+        generations[id]++;
+        freeIds[freeCount++] = id;
+
+        int last = --size;
+        if (slot == last) {
+            return;
+        }
+        if (slot > 0 && before(last, (slot - 1) / ARITY)) {
+            siftUp(slot, times[last], seqs[last], types[last], payloads[last], ids[last]);
+        } else {
+            siftDown(slot, times[last], seqs[last], types[last], payloads[last], ids[last]);
+        }
+    }
+
+    // move parents down into the hole until the event's slot is found
+    private void siftUp(int hole, double time, long seq, byte type, int payload, int id) {
+        while (hole > 0) {
+            int parent = (hole - 1) / ARITY;
+            if (times[parent] < time || (times[parent] == time && seqs[parent] < seq)) {
+                break;
+            }
+            moveSlot(parent, hole);
+            hole = parent;
+        }
+        setSlot(hole, time, seq, type, payload, id);
+    }
+
+    private void siftDown(int hole, double time, long seq, byte type, int payload, int id) {
+        while (true) {
+            int firstChild = hole * ARITY + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            // find the earliest of the (up to) ARITY children
+            int lastChild = Math.min(firstChild + ARITY, size);
+            int minChild = firstChild;
+            for (int c = firstChild + 1; c < lastChild; c++) {
+                if (before(c, minChild)) {
+                    minChild = c;
+                }
+            }
+            if (time < times[minChild] || (time == times[minChild] && seq < seqs[minChild])) {
+                break;
+            }
+            moveSlot(minChild, hole);
+            hole = minChild;
+        }
+        setSlot(hole, time, seq, type, payload, id);
+    }
+
+    private boolean before(int a, int b) {
+        return times[a] < times[b] || (times[a] == times[b] && seqs[a] < seqs[b]);
+    }
+
+    private void setSlot(int slot, double time, long seq, byte type, int payload, int id) {
+        times[slot] = time;
+        seqs[slot] = seq;
+        types[slot] = type;
+        payloads[slot] = payload;
+        ids[slot] = id;
+        slots[id] = slot;
+    }
+
+    private void moveSlot(int from, int to) {
+        times[to] = times[from];
+        seqs[to] = seqs[from];
+        types[to] = types[from];
+        payloads[to] = payloads[from];
+        ids[to] = ids[from];
+        slots[ids[to]] = to;
+    }
+
+    private void grow() {
+        int capacity = times.length << 1;
+        times = Arrays.copyOf(times, capacity);
+        seqs = Arrays.copyOf(seqs, capacity);
+        types = Arrays.copyOf(types, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        freeIds = Arrays.copyOf(freeIds, capacity);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            s.append(EventType.fromCode(types[i])).append(" at time ").append(times[i]).append(" | ");
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Ladder queue (W. T. Tang, R. S. M. Goh and I. L.-J. Thng, 2005). Events are kept in three tiers:
+ *      - Top: an unsorted list of events far in the future (later than `topStart`);
+ *      - Ladder: up to `MAX_RUNGS` rungs of buckets. When the ladder is empty the whole of Top is spread over a new
+ *        rung with one bucket per event. A bucket that holds more than `THRESHOLD` events when it is reached is
+ *        spread over a finer rung below it instead of being sorted;
+ *      - Bottom: a short sorted list of the earliest events, from which events are removed.
+ * Only Bottom is ever sorted, and it only ever holds one bucket's worth of events, so insert and remove take O(1)
+ * amortized time regardless of how many events are pending.
+ */
+
+class LadderEventQueue extends LinkedEventQueue {
+    private static final int MAX_RUNGS = 8;
+    private static final int THRESHOLD = 50;
+
+    // Top
+    private int topHead = NIL;
+    private int topCount;
+    private double topMin;
+    private double topMax;
+    private double topStart = Double.NEGATIVE_INFINITY;
+
+    // Ladder: rung 0 is the coarsest, rung `nRungs - 1` the finest
+    private final int[][] rungHeads = new int[MAX_RUNGS][];
+    private final int[][] rungCounts = new int[MAX_RUNGS][];
+    private final double[] rungStart = new double[MAX_RUNGS];
+    private final double[] rungWidth = new double[MAX_RUNGS];
+    private final int[] rungBuckets = new int[MAX_RUNGS];
+    private final int[] rungCurrent = new int[MAX_RUNGS];    // first bucket of the rung not yet handed down
+    private int nRungs;
+
+    // Bottom
+    private int bottomHead = NIL;
+    private int bottomCount;
+
+    @Override
+    void insertNode(int node) {
+        double time = times[node];
+        if (time > topStart) {
+            next[node] = topHead;
+            topHead = node;
+            if (topCount++ == 0) {
+                topMin = topMax = time;
+            } else {
+                topMin = Math.min(topMin, time);
+                topMax = Math.max(topMax, time);
+            }
+            return;
+        }
+
+        for (int k = 0; k < nRungs; k++) {
+            if (rungCurrent[k] < rungBuckets[k] && time >= rungStart[k] + rungCurrent[k] * rungWidth[k]) {
+                addToRung(k, node);
+                return;
+            }
+        }
+
+        bottomHead = insertSorted(bottomHead, node);
+        if (++bottomCount > THRESHOLD && nRungs < MAX_RUNGS) {
+            spawnRungFromBottom();
+        }
+    }
+
+    @Override
+    int removeHeadNode() {
+        refillBottom();
+        int node = bottomHead;
+        bottomHead = next[node];
+        bottomCount--;
+        return node;
+    }
+
+    @Override
+    int peekHeadNode() {
+        refillBottom();
+        return bottomHead;
+    }
+
+    /**
+     * Hands events down the ladder until Bottom holds the earliest ones.
+     */
+    private void refillBottom() {
+        while (bottomHead == NIL) {
+            if (nRungs == 0) {
+                transferTop();
+                continue;
+            }
+            int k = nRungs - 1;
+            int[] counts = rungCounts[k];
+            while (rungCurrent[k] < rungBuckets[k] && counts[rungCurrent[k]] == 0) {
+                rungCurrent[k]++;
+            }
+            if (rungCurrent[k] == rungBuckets[k]) {
+                nRungs--;                // rung exhausted
+                continue;
+            }
+
+            int bucket = rungCurrent[k]++;
+            int list = rungHeads[k][bucket];
+            int count = counts[bucket];
+            rungHeads[k][bucket] = NIL;
+            counts[bucket] = 0;
+
+            double childWidth = rungWidth[k] / count;
+            if (count > THRESHOLD && nRungs < MAX_RUNGS && childWidth > 0) {
+                createRung(rungStart[k] + bucket * rungWidth[k], childWidth, count + 1, list);
+            } else {
+                bottomHead = sortList(list);
+                bottomCount = count;
+            }
+        }
+    }
+
+    /**
+     * Moves all of Top onto a new first rung, or straight into Bottom if its events cannot be spread out.
+     */
+    private void transferTop() {
+        int list = topHead;
+        int count = topCount;
+        double min = topMin;
+        double max = topMax;
+        topHead = NIL;
+        topCount = 0;
+        topStart = max;
+
+        double width = (max - min) / count;
+        if (count == 1 || !(width > 0)) {
+            bottomHead = sortList(list);
+            bottomCount = count;
+        } else {
+            createRung(min, width, count + 1, list);
+        }
+    }
+
+    /**
+     * Bottom has grown too long to keep sorted cheaply: spread it over a new finest rung.
+     */
+    private void spawnRungFromBottom() {
+        int tail = bottomHead;
+        while (next[tail] != NIL) {
+            tail = next[tail];
+        }
+        double min = times[bottomHead];
+        double width = (times[tail] - min) / bottomCount;
+        if (!(width > 0)) {
+            return;
+        }
+        int list = bottomHead;
+        int count = bottomCount;
+        bottomHead = NIL;
+        bottomCount = 0;
+        createRung(min, width, count + 1, list);
+    }
+
+    private void createRung(double start, double width, int buckets, int list) {
+        int k = nRungs++;
+        if (rungHeads[k] == null || rungHeads[k].length < buckets) {
+            int capacity = Math.max(buckets, rungHeads[k] == null ? 0 : rungHeads[k].length * 2);
+            rungHeads[k] = new int[capacity];
+            rungCounts[k] = new int[capacity];
+        }
+        Arrays.fill(rungHeads[k], 0, buckets, NIL);
+        Arrays.fill(rungCounts[k], 0, buckets, 0);
+        rungStart[k] = start;
+        rungWidth[k] = width;
+        rungBuckets[k] = buckets;
+        rungCurrent[k] = 0;
+
+        while (list != NIL) {
+            int following = next[list];
+            addToRung(k, list);
+            list = following;
+        }
+    }
+
+    private void addToRung(int k, int node) {
+        int bucket = (int) ((times[node] - rungStart[k]) / rungWidth[k]);
+        // guard against rounding at the edges of the rung
+        bucket = Math.max(rungCurrent[k], Math.min(bucket, rungBuckets[k] - 1));
+        next[node] = rungHeads[k][bucket];
+        rungHeads[k][bucket] = node;
+        rungCounts[k][bucket]++;
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Log-bucketed histogram of times in seconds, laid out like HdrHistogram: values are counted in whole
+ * microseconds, and every power-of-two range of values is split into 128 equal sub-buckets, so any recorded
+ * value can be told apart from values more than 1/128 (under 1%) away from it, from 1 microsecond up to about
+ * 50 days.
+ *
+ * The counts live in one `long[]` that only grows to the highest bucket recorded so far (at most a few thousand
+ * entries), so recording is a couple of shifts and an increment and allocates nothing once the array has reached
+ * the range of the run. All histograms share the same bucket layout, so adding one to another is exact - e.g. to
+ * combine the replications of a sweep.
+ */
+
+final class LatencyHistogram {
+    private static final double UNITS_PER_SECOND = 1e6;          // count in microseconds
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 7;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final long SUB_BUCKET_MASK = (2L << SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+    private static final long HIGHEST_TRACKABLE_VALUE = (1L << 42) - 1;   // larger values are counted here
+
+    private long[] counts = new long[2 * SUB_BUCKET_HALF_COUNT];
+    private long totalCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Counts one observation of `seconds`. Negative values (rounding noise of a zero wait) count as zero.
+     */
+    void record(double seconds) {
+        int index = countsIndex(toUnits(seconds));
+        if (index >= counts.length) {
+            grow(index + 1);
+        }
+        counts[index]++;
+        totalCount++;
+        min = Math.min(min, seconds);
+        max = Math.max(max, seconds);
+    }
+
+    /**
+     * Adds all observations of `other` to this histogram.
+     */
+    void add(LatencyHistogram other) {
+        if (other.counts.length > counts.length) {
+            grow(other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * @return the value at or below which `percentile` percent of the observations fall (the upper edge of its
+     * bucket, but never more than the largest observation), or 0 if nothing was recorded
+     */
+    double getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double fraction = Math.min(Math.max(percentile, 0), 100) / 100;
+        long countAtPercentile = Math.max(1, (long) Math.ceil(fraction * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(i) / UNITS_PER_SECOND, max);
+            }
+        }
+        return max;
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    double getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    double getMax() {
+        return totalCount == 0 ? 0 : max;
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    private void grow(int length) {
+        counts = Arrays.copyOf(counts, Math.max(length, counts.length * 2));
+    }
+
+    private static long toUnits(double seconds) {
+        if (!(seconds > 0)) {
+            return 0;
+        }
+        return Math.min((long) (seconds * UNITS_PER_SECOND), HIGHEST_TRACKABLE_VALUE);
+    }
+
+    private static int countsIndex(long value) {
+        int bucketIndex = LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    private static long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        long subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            bucketIndex = 0;
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+        }
+        return (subBucketIndex << bucketIndex) + (1L << bucketIndex) - 1;
+    }
+}
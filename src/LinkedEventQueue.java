@@ -0,0 +1,264 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Shared storage for the bucket based event queues (`CalendarEventQueue` and `LadderEventQueue`). Events live in a
+ * pool of nodes held in parallel primitive arrays and are chained into singly linked lists through `next`; removed
+ * nodes go back on a free list, so the queues allocate nothing per event once the pool has grown to the largest
+ * number of pending events of the run.
+ *
+ * Every node carries an insertion sequence number, and nodes are always compared by time then sequence, which gives
+ * the same first-in first-out order on equal timestamps as `HeapEventQueue`.
+ *
+ * Cancelling is lazy: the node is only marked `CANCELLED` in `types` and stays where it is until it reaches the
+ * head, where it is dropped, so the bucket structures never have to unlink a node from the middle of a list.
+ * `size` counts the nodes in the structure, cancelled or not; `generations` is bumped whenever a node is freed, so
+ * handles to freed nodes are stale.
+ */
+
+abstract class LinkedEventQueue implements EventQueue {
+    static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final byte CANCELLED = -1;
+
+    double[] times;
+    long[] seqs;
+    byte[] types;
+    int[] payloads;
+    int[] next;
+    private int[] generations;
+
+    private int freeHead = NIL;
+    private int allocated;
+    private long nextSeq;
+    int size;
+    private int cancelled;
+
+    private double removedEventTime;
+    private int removedEventPayload;
+
+    LinkedEventQueue() {
+        times = new double[INITIAL_CAPACITY];
+        seqs = new long[INITIAL_CAPACITY];
+        types = new byte[INITIAL_CAPACITY];
+        payloads = new int[INITIAL_CAPACITY];
+        next = new int[INITIAL_CAPACITY];
+        generations = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public long insertEvent(EventType eventType, double eventTime) {
+        return insertEvent(eventType, eventTime, -1);
+    }
+
+    @Override
+    public long insertEvent(EventType eventType, double eventTime, int payload) {
+        int node = allocateNode();
+        times[node] = eventTime;
+        seqs[node] = nextSeq++;
+        types[node] = eventType.getCode();
+        payloads[node] = payload;
+        next[node] = NIL;
+        size++;
+        insertNode(node);
+        return ((long) generations[node] << 32) | node;
+    }
+
+    @Override
+    public EventType returnAndRemoveHeadEvent() {
+        if (peekLiveNode() == NIL) {
+            return null;
+        }
+        size--;
+        int node = removeHeadNode();
+        removedEventTime = times[node];
+        removedEventPayload = payloads[node];
+        EventType type = EventType.fromCode(types[node]);
+        freeNode(node);
+        return type;
+    }
+
+    @Override
+    public boolean cancel(long handle) {
+        int node = pendingNode(handle);
+        if (node == NIL) {
+            return false;
+        }
+        types[node] = CANCELLED;
+        cancelled++;
+        return true;
+    }
+
+    @Override
+    public long reschedule(long handle, double newTime) {
+        int node = pendingNode(handle);
+        if (node == NIL) {
+            throw new IllegalArgumentException("Event is no longer pending: " + handle);
+        }
+        EventType type = EventType.fromCode(types[node]);
+        cancel(handle);
+        return insertEvent(type, newTime, payloads[node]);
+    }
+
+    @Override
+    public EventType safelyPeekAtNextEvent() {
+        int node = peekLiveNode();
+        return node == NIL ? null : EventType.fromCode(types[node]);
+    }
+
+    @Override
+    public double safelyPeekAtNextEventTime() {
+        int node = peekLiveNode();
+        return node == NIL ? Double.POSITIVE_INFINITY : times[node];
+    }
+
+    @Override
+    public double getRemovedEventTime() {
+        return removedEventTime;
+    }
+
+    @Override
+    public int getRemovedEventPayload() {
+        return removedEventPayload;
+    }
+
+    @Override
+    public int size() {
+        return size - cancelled;
+    }
+
+    /**
+     * Files an already filled-in node into the structure.
+     */
+    abstract void insertNode(int node);
+
+    /**
+     * @return the earliest node, unlinked from the structure. Only called when the queue is not empty;
+     * `size` already excludes the node being removed.
+     */
+    abstract int removeHeadNode();
+
+    /**
+     * @return the earliest node, left in place. Only called when the queue is not empty.
+     */
+    abstract int peekHeadNode();
+
+    /**
+     * Drops cancelled nodes from the head of the queue.
+     * @return the earliest pending node, left in place, or NIL if no event is pending
+     */
+    private int peekLiveNode() {
+        while (size > 0) {
+            int node = peekHeadNode();
+            if (types[node] != CANCELLED) {
+                return node;
+            }
+            size--;
+            removeHeadNode();
+            cancelled--;
+            freeNode(node);
+        }
+        return NIL;
+    }
+
+    /**
+     * @return the node of `handle`, or NIL if the handle is stale
+     */
+    private int pendingNode(long handle) {
+        int node = (int) handle;
+        if (node < 0 || node >= allocated || generations[node] != (int) (handle >>> 32) || types[node] == CANCELLED) {
+            return NIL;
+        }
+        return node;
+    }
+
+    boolean before(int a, int b) {
+        return times[a] < times[b] || (times[a] == times[b] && seqs[a] < seqs[b]);
+    }
+
+    /**
+     * Inserts `node` into the sorted list starting at `head`.
+     * @return the new head of the list
+     */
+    int insertSorted(int head, int node) {
+        if (head == NIL || before(node, head)) {
+            next[node] = head;
+            return node;
+        }
+        int prev = head;
+        while (next[prev] != NIL && !before(node, next[prev])) {
+            prev = next[prev];
+        }
+        next[node] = next[prev];
+        next[prev] = node;
+        return head;
+    }
+
+    /**
+     * Sorts the list starting at `head` with a merge sort on the links, without allocating.
+     * @return the new head of the list
+     */
+    int sortList(int head) {
+        if (head == NIL || next[head] == NIL) {
+            return head;
+        }
+        // split in halves with a slow and a fast pointer
+        int slow = head, fast = next[head];
+        while (fast != NIL && next[fast] != NIL) {
+            slow = next[slow];
+            fast = next[next[fast]];
+        }
+        int second = next[slow];
+        next[slow] = NIL;
+        return merge(sortList(head), sortList(second));
+    }
+
+    private int merge(int a, int b) {
+        int head, tail;
+        if (before(b, a)) {
+            head = b;
+            b = next[b];
+        } else {
+            head = a;
+            a = next[a];
+        }
+        tail = head;
+        while (a != NIL && b != NIL) {
+            if (before(b, a)) {
+                next[tail] = b;
+                b = next[b];
+            } else {
+                next[tail] = a;
+                a = next[a];
+            }
+            tail = next[tail];
+        }
+        next[tail] = a != NIL ? a : b;
+        return head;
+    }
+
+    private int allocateNode() {
+        if (freeHead != NIL) {
+            int node = freeHead;
+            freeHead = next[node];
+            return node;
+        }
+        if (allocated == times.length) {
+            int capacity = times.length << 1;
+            times = Arrays.copyOf(times, capacity);
+            seqs = Arrays.copyOf(seqs, capacity);
+            types = Arrays.copyOf(types, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            next = Arrays.copyOf(next, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+        }
+        return allocated++;
+    }
+
+    private void freeNode(int node) {
+        generations[node]++;
+        next[node] = freeHead;
+        freeHead = node;
+    }
+}
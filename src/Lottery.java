@@ -0,0 +1,63 @@
+import java.util.SplittableRandom;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Lottery scheduling (C. Waldspurger and W. Weihl, 1994) specialization class. Every quantum a ticket is drawn at
+ * random from all queued processes and its holder runs next, so over time each process gets a share of the CPU
+ * proportional to its tickets. The queued processes and their tickets are kept in a `TicketTree`, which finds the
+ * winner in O(log n).
+ *
+ * The draws come from their own stream of the simulation's `RandomStreams`, so a run with the same seed makes
+ * the same draws.
+ */
+
+class Lottery extends ProportionalShareScheduler {
+    private final TicketTree tickets = new TicketTree();
+    private final SplittableRandom draws;
+    private int winner = ProcessTable.NO_PROCESS;   // drawn by a peek, runs next unless the queue changes
+
+    Lottery(ProcessTable processTable, double quantum, SplittableRandom draws, TicketDistribution tickets,
+            SplittableRandom ticketCounts) {
+        super(processTable, quantum, tickets, ticketCounts);
+        this.setSchedulerType(SchedulerType.LOTTERY);
+        this.draws = draws;
+    }
+
+    @Override
+    void enqueue(int p) {
+        tickets.insert(p, processTable.getTickets(p));
+        winner = ProcessTable.NO_PROCESS;
+    }
+
+    @Override
+    int getNextProcessForCPU() {
+        int p = safelyPeekAtNextProcess();
+        if (p != ProcessTable.NO_PROCESS) {
+            tickets.remove(p);
+            winner = ProcessTable.NO_PROCESS;
+        }
+        return p;
+    }
+
+    /**
+     * @return the winner of the next draw, or `ProcessTable.NO_PROCESS` if nothing is queued
+     */
+    @Override
+    int safelyPeekAtNextProcess() {
+        if (winner == ProcessTable.NO_PROCESS && !tickets.isEmpty()) {
+            winner = tickets.find(draws.nextLong(tickets.getTotalTickets()));
+        }
+        return winner;
+    }
+
+    @Override
+    boolean isReadyQueueEmpty() {
+        return tickets.isEmpty();
+    }
+
+    @Override
+    int readyQueueSize() {
+        return tickets.size();
+    }
+}
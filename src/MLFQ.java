@@ -0,0 +1,249 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Multi-level feedback queue specialization class that inherits from abstract Scheduling Algorithm. There are up to
+ * 64 levels, each a FIFO ring buffer (a Round Robin `ProcessReadyQueue`) with its own quantum. New processes enter
+ * the top level 0; a process that uses up its whole quantum moves one level down, and every `boostInterval` all
+ * processes are moved back to the top so that long jobs cannot starve.
+ *
+ * As in the O(1) Linux scheduler, a bitmap with one bit per level records which levels hold processes, so the next
+ * process is found with a single `numberOfTrailingZeros` - no scan over the levels.
+ *
+ * MLFQ is a `TimeSlicedScheduler`, like Round Robin: the end of a quantum calls `onQuantumExpired`, and a new
+ * arrival waits for the running quantum to end rather than preempting it. The boost is a `PriorityBoost` event
+ * every `boostInterval`; it moves the queued processes at once, the running process is moved when its quantum ends.
+ *
+ * For every level the scheduler reports the average number of processes at that level (queued or running,
+ * time-weighted) and the share of the CPU time spent at that level.
+ */
+
+class MLFQ extends TimeSlicedScheduler {
+    static final int MAX_LEVELS = 64;
+
+    private final ProcessReadyQueue[] levels;
+    private final double[] quanta;
+    private final double boostInterval;
+    private long nonEmptyLevels;      // bit i set if level i has queued processes
+    private int[] levelOf = new int[64];   // level of each process handle
+    private int queued;
+
+    // statistics
+    private final int[] processesAtLevel;
+    private final TimeWeightedStatistic[] residency;
+    private final CompensatedSum[] cpuTime;
+    private double now;
+    private double lastBoostTime = Double.NEGATIVE_INFINITY;
+    private long demotions;
+    private long boosts;
+
+    MLFQ(ProcessTable processTable, double[] quanta, double boostInterval) {
+        super(processTable);
+        if (quanta.length < 1 || quanta.length > MAX_LEVELS) {
+            throw new IllegalArgumentException("MLFQ needs between 1 and " + MAX_LEVELS + " levels");
+        }
+        this.setSchedulerType(SchedulerType.MLFQ);
+        this.quanta = quanta.clone();
+        this.boostInterval = boostInterval;
+        levels = new ProcessReadyQueue[quanta.length];
+        processesAtLevel = new int[quanta.length];
+        residency = new TimeWeightedStatistic[quanta.length];
+        cpuTime = new CompensatedSum[quanta.length];
+        for (int i = 0; i < quanta.length; i++) {
+            levels[i] = new ProcessReadyQueue(SchedulerType.RR.getSchedulerType(), processTable);
+            residency[i] = new TimeWeightedStatistic();
+            cpuTime[i] = new CompensatedSum();
+        }
+    }
+
+    /**
+     * @return the quanta `quantum`, 2 * `quantum`, 4 * `quantum`, ... of `numLevels` levels
+     */
+    static double[] doublingQuanta(int numLevels, double quantum) {
+        double[] quanta = new double[numLevels];
+        for (int i = 0; i < numLevels; i++) {
+            quanta[i] = quantum * (1L << Math.min(i, 62));
+        }
+        return quanta;
+    }
+
+    @Override
+    void addProcessToReadyQueue(int p) {
+        if (!processTable.isReturning(p)) {
+            // a new process enters at the top
+            if (p >= levelOf.length) {
+                levelOf = Arrays.copyOf(levelOf, Math.max(p + 1, levelOf.length * 2));
+            }
+            levelOf[p] = 0;
+            changeCount(0, 1);
+        }
+        int level = levelOf[p];
+        levels[level].insertProcess(p);
+        nonEmptyLevels |= 1L << level;
+        queued++;
+    }
+
+    @Override
+    int getNextProcessForCPU() {
+        if (nonEmptyLevels == 0) {
+            return ProcessTable.NO_PROCESS;
+        }
+        int level = Long.numberOfTrailingZeros(nonEmptyLevels);
+        int p = levels[level].returnAndRemoveHeadProcess();
+        if (levels[level].isEmpty()) {
+            nonEmptyLevels &= ~(1L << level);
+        }
+        queued--;
+        return p;
+    }
+
+    @Override
+    int safelyPeekAtNextProcess() {
+        if (nonEmptyLevels == 0) {
+            return ProcessTable.NO_PROCESS;
+        }
+        return levels[Long.numberOfTrailingZeros(nonEmptyLevels)].peek();
+    }
+
+    @Override
+    boolean isReadyQueueEmpty() {
+        return queued == 0;
+    }
+
+    @Override
+    int readyQueueSize() {
+        return queued;
+    }
+
+    @Override
+    double getQuantum(int p) {
+        return quanta[levelOf[p]];
+    }
+
+    /**
+     * `p` used up its quantum: it moves one level down - or to the top, if a boost happened while it ran.
+     */
+    @Override
+    void onQuantumExpired(int p) {
+        int level = levelOf[p];
+        cpuTime[level].add(quanta[level]);
+        int newLevel;
+        if (processTable.getRestartTime(p) < lastBoostTime) {
+            newLevel = 0;
+        } else {
+            newLevel = Math.min(level + 1, quanta.length - 1);
+            if (newLevel != level) {
+                demotions++;
+            }
+        }
+        if (newLevel != level) {
+            changeCount(level, -1);
+            changeCount(newLevel, 1);
+            levelOf[p] = newLevel;
+        }
+    }
+
+    @Override
+    void onProcessCompleted(int p, double ranFor) {
+        int level = levelOf[p];
+        cpuTime[level].add(ranFor);
+        changeCount(level, -1);
+    }
+
+    @Override
+    public void onStart() {
+        eventQueue.insertEvent(EventType.PriorityBoost, boostInterval);
+    }
+
+    @Override
+    public void onTimer(EventType type, double now) {
+        if (type == EventType.PriorityBoost) {
+            boost();
+            eventQueue.insertEvent(EventType.PriorityBoost, now + boostInterval);
+        }
+    }
+
+    /**
+     * Moves every queued process to the top level, keeping the order of the levels.
+     */
+    void boost() {
+        boosts++;
+        lastBoostTime = now;
+        for (int level = 1; level < levels.length; level++) {
+            int p;
+            while ((p = levels[level].returnAndRemoveHeadProcess()) != ProcessTable.NO_PROCESS) {
+                levels[0].insertProcess(p);
+                levelOf[p] = 0;
+                changeCount(level, -1);
+                changeCount(0, 1);
+            }
+        }
+        if (queued > 0) {
+            nonEmptyLevels = 1L;
+        }
+    }
+
+    @Override
+    void recordStateUntil(double now, double busyFraction, int queuedProcesses, int liveProcesses) {
+        super.recordStateUntil(now, busyFraction, queuedProcesses, liveProcesses);
+        this.now = now;
+    }
+
+    private void changeCount(int level, int delta) {
+        residency[level].record(now, processesAtLevel[level]);
+        processesAtLevel[level] += delta;
+    }
+
+    @Override
+    void resetStatistics(double now) {
+        super.resetStatistics(now);
+        for (int i = 0; i < levels.length; i++) {
+            residency[i].reset(now);
+            cpuTime[i].reset();
+        }
+        demotions = 0;
+        boosts = 0;
+    }
+
+    /**
+     * @return the time-weighted average number of processes at each level over [statisticsStart, totalSimTime]
+     */
+    double[] getLevelResidency(double totalSimTime) {
+        double[] averages = new double[levels.length];
+        for (int i = 0; i < levels.length; i++) {
+            residency[i].record(totalSimTime, processesAtLevel[i]);
+            averages[i] = residency[i].getAverage(totalSimTime);
+        }
+        return averages;
+    }
+
+    /**
+     * @return the fraction of the CPU time of completed quanta and processes spent at each level
+     */
+    double[] getLevelCpuShare() {
+        double total = 0;
+        for (CompensatedSum c : cpuTime) {
+            total += c.getSum();
+        }
+        double[] shares = new double[levels.length];
+        for (int i = 0; i < levels.length; i++) {
+            shares[i] = total > 0 ? cpuTime[i].getSum() / total : 0;
+        }
+        return shares;
+    }
+
+    /**
+     * @return the times a process used up its quantum and moved down a level
+     */
+    long getDemotions() {
+        return demotions;
+    }
+
+    /**
+     * @return the priority boosts that moved every process back to the top level
+     */
+    long getBoosts() {
+        return boosts;
+    }
+}
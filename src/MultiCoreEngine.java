@@ -0,0 +1,385 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * How the run queues of a multi-core run are kept in balance:
+ *      - SHARED: a single ready queue that every core takes its next process from;
+ *      - PUSH: one queue per core; arrivals are spread over the cores in turn and every `balanceInterval` a
+ *        `LoadBalance` event moves processes from the longest queues to the shortest ones;
+ *      - STEAL: one queue per core; arrivals go to the shortest queue and a core whose queue runs dry takes a
+ *        process from the longest queue.
+ */
+
+enum BalancingPolicy {
+    SHARED("shared"), PUSH("push"), STEAL("steal");
+
+    private final String name;
+
+    BalancingPolicy(String name) {
+        this.name = name;
+    }
+
+    static BalancingPolicy fromName(String name) {
+        for (BalancingPolicy p : values()) {
+            if (p.name.equalsIgnoreCase(name)) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
+
+/**
+ * @author Jack Shendrikov
+ *
+ * The N cores of a multi-core run and their ready queues. `Simulation` hands it the events of the run through the
+ * `SchedulerHooks`, in place of the scheduler, and it decides which core runs what; the scheduler only keeps the
+ * statistics.
+ *
+ * Every core schedules the completion of its process as soon as the process is dispatched (for RR, the completion
+ * or the end of the time slice, whichever comes first) and keeps the handle of that event. A PSJF preemption
+ * cancels the event of the preempted process through its handle and dispatches another process, so every event
+ * that comes up is the one its core is waiting for.
+ *
+ * Nothing here scans the cores: idle cores are kept on a stack, and indexed heaps (`CoreHeap`) give the shortest
+ * and the longest run queue, and under PSJF with a shared queue the core whose process would finish last - the
+ * one to preempt. Every operation is O(1) or O(log cores).
+ */
+final class MultiCoreEngine implements SchedulerHooks {
+    private final SchedulerContext context;
+    private final EventQueue eventQueue;
+    private final EventLog eventLog;            // null unless the run keeps an event log
+    private final ProcessTable processTable;
+    private final boolean shortestRemainingFirst;
+    private final double quantumForRR;
+    private final BalancingPolicy policy;
+    private final double balanceInterval;
+
+    private final CPU[] cores;
+    private final ProcessReadyQueue[] queues;   // one per core, or only a shared one at index 0
+    private final int[] idleCores;              // stack of idle cores
+    private int idleCount;
+
+    private final CoreHeap shortestQueue;       // per-core queues only
+    private final CoreHeap longestQueue;
+    private final CoreHeap latestCompletion;    // PSJF with a shared queue only
+    private int nextCore;                       // PUSH: where the next arrival goes
+
+    private int queued;                         // processes waiting in all queues together
+    private int busyCores;
+    private long migrations;
+
+    // per-core statistics cover [statisticsStart, end of the run]: what the cores did before is subtracted
+    private double statisticsStart;
+    private final double[] busyTimeAtStart;
+    private final long[] migrationsAtStart;
+
+    MultiCoreEngine(int numCores, SchedulerType schedulerType, double quantumForRR, BalancingPolicy policy,
+                    double balanceInterval, SchedulerContext context) {
+        this.context = context;
+        this.eventQueue = context.getEventQueue();
+        this.processTable = context.getProcessTable();
+        this.eventLog = context.getEventLog();
+        this.shortestRemainingFirst = schedulerType == SchedulerType.PSJF;
+        this.quantumForRR = quantumForRR;
+        this.policy = policy;
+        this.balanceInterval = balanceInterval;
+
+        cores = new CPU[numCores];
+        busyTimeAtStart = new double[numCores];
+        migrationsAtStart = new long[numCores];
+        idleCores = new int[numCores];
+        for (int c = 0; c < numCores; c++) {
+            cores[c] = new CPU();
+            // pushed in reverse, so core 0 is handed out first
+            idleCores[idleCount++] = numCores - 1 - c;
+        }
+
+        queues = new ProcessReadyQueue[policy == BalancingPolicy.SHARED ? 1 : numCores];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ProcessReadyQueue(schedulerType.getSchedulerType(), processTable);
+        }
+        shortestQueue = policy == BalancingPolicy.SHARED ? null : new CoreHeap(numCores, false);
+        longestQueue = policy == BalancingPolicy.SHARED ? null : new CoreHeap(numCores, true);
+        latestCompletion = policy == BalancingPolicy.SHARED && shortestRemainingFirst
+                ? new CoreHeap(numCores, true) : null;
+    }
+
+    /**
+     * Schedules the first `LoadBalance` event if the policy needs one.
+     */
+    @Override
+    public void onStart() {
+        if (policy == BalancingPolicy.PUSH) {
+            eventQueue.insertEvent(EventType.LoadBalance, balanceInterval);
+        }
+    }
+
+    /**
+     * A new process arrives: run it on an idle core if there is one, otherwise queue it (or, under PSJF, let it
+     * preempt a process with a longer remaining time).
+     */
+    @Override
+    public void onArrival(int p, double now) {
+        if (idleCount > 0) {
+            dispatch(idleCores[--idleCount], p, now);
+            return;
+        }
+
+        int core;
+        if (policy == BalancingPolicy.SHARED) {
+            core = shortestRemainingFirst ? latestCompletion.peek() : 0;
+        } else if (policy == BalancingPolicy.PUSH) {
+            core = nextCore;
+            nextCore = (nextCore + 1) % cores.length;
+        } else {
+            core = shortestQueue.peek();
+        }
+
+        if (shortestRemainingFirst
+                && processTable.getRemainingCpuTime(p) < cores[core].getPendingEventTime() - now) {
+            preempt(core, p, now);
+        } else {
+            enqueue(core, p);
+        }
+    }
+
+    /**
+     * The process on `core` completed: the core moves on to its next process, then the completion is recorded.
+     */
+    @Override
+    public void onCompletion(int core, double now) {
+        int p = cores[core].getMyProcess();
+        processTable.setRemainingCpuTime(p, 0);
+        dispatchNext(core, now);
+        context.completeProcess(p);
+    }
+
+    /**
+     * The quantum of the process on `core` expired: it goes to the tail of the queue and the head runs next.
+     */
+    @Override
+    public void onTimeSlice(int core, double now) {
+        int p = cores[core].getMyProcess();
+        processTable.setRemainingCpuTime(p, processTable.getRemainingCpuTime(p) - quantumForRR);
+        if (eventLog != null) {
+            eventLog.record(LogRecordType.TIME_SLICE, now, p, core);
+        }
+        enqueue(core, p);
+        dispatchNext(core, now);
+    }
+
+    @Override
+    public void onTimer(EventType type, double now) {
+        if (type == EventType.LoadBalance) {
+            onLoadBalance(now);
+        }
+    }
+
+    /**
+     * Push migration: first give queued processes to idle cores, then move processes one at a time from the
+     * longest queue to the shortest until no two queues differ by more than one.
+     */
+    private void onLoadBalance(double now) {
+        while (idleCount > 0 && queued > 0) {
+            int from = longestQueue.peek();
+            dispatch(idleCores[--idleCount], dequeue(from), now);
+        }
+        while (longestQueue.getKey(longestQueue.peek()) - shortestQueue.getKey(shortestQueue.peek()) > 1) {
+            int from = longestQueue.peek();
+            enqueue(shortestQueue.peek(), dequeue(from));
+        }
+        eventQueue.insertEvent(EventType.LoadBalance, now + balanceInterval);
+    }
+
+    private void preempt(int core, int p, double now) {
+        CPU cpu = cores[core];
+        int running = cpu.getMyProcess();
+        eventQueue.cancel(cpu.getPendingEventHandle());
+        processTable.setRemainingCpuTime(running, cpu.getPendingEventTime() - now);
+        if (eventLog != null) {
+            eventLog.record(LogRecordType.PREEMPTION, now, running, core);
+        }
+        enqueue(core, running);
+        dispatch(core, p, now);
+    }
+
+    /**
+     * Runs the next process from the core's queue - or, under STEAL, from the longest queue - or idles the core.
+     */
+    private void dispatchNext(int core, double now) {
+        int next = ProcessTable.NO_PROCESS;
+        if (queueSize(core) > 0) {
+            next = dequeue(core);
+        } else if (policy == BalancingPolicy.STEAL && queued > 0) {
+            next = dequeue(longestQueue.peek());
+        }
+
+        if (next != ProcessTable.NO_PROCESS) {
+            dispatch(core, next, now);
+            return;
+        }
+        CPU cpu = cores[core];
+        cpu.stopBusy(now);
+        cpu.setMyProcess(ProcessTable.NO_PROCESS);
+        busyCores--;
+        idleCores[idleCount++] = core;
+        if (latestCompletion != null) {
+            latestCompletion.setKey(core, Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Puts `p` on `core` and schedules its completion or the end of its time slice.
+     */
+    private void dispatch(int core, int p, double now) {
+        CPU cpu = cores[core];
+        if (!cpu.isBusy()) {
+            cpu.startBusy(now);
+            busyCores++;
+        }
+        cpu.setMyProcess(p);
+        assignCore(p, core);
+
+        if (!processTable.isReturning(p)) {
+            processTable.setStartTime(p, now);
+            processTable.setIsReturning(p, true);
+        }
+        processTable.setRestartTime(p, now);
+        if (eventLog != null) {
+            eventLog.record(LogRecordType.DISPATCH, now, p, core);
+        }
+
+        double remaining = processTable.getRemainingCpuTime(p);
+        if (shortestRemainingFirst || remaining - quantumForRR <= 0) {
+            cpu.setPendingEvent(EventType.ProcessCompletion, now + remaining);
+        } else {
+            cpu.setPendingEvent(EventType.TimeSliceOccurrence, now + quantumForRR);
+        }
+        cpu.setPendingEventHandle(eventQueue.insertEvent(cpu.getPendingEventType(), cpu.getPendingEventTime(), core));
+        if (latestCompletion != null) {
+            latestCompletion.setKey(core, cpu.getPendingEventTime());
+        }
+    }
+
+    private void enqueue(int core, int p) {
+        if (policy == BalancingPolicy.SHARED) {
+            queues[0].insertProcess(p);
+        } else {
+            assignCore(p, core);
+            queues[core].insertProcess(p);
+            updateLoad(core);
+        }
+        queued++;
+    }
+
+    private int dequeue(int core) {
+        int p;
+        if (policy == BalancingPolicy.SHARED) {
+            p = queues[0].returnAndRemoveHeadProcess();
+        } else {
+            p = queues[core].returnAndRemoveHeadProcess();
+            updateLoad(core);
+        }
+        queued--;
+        return p;
+    }
+
+    @Override
+    public boolean removeQueuedProcess(int p) {
+        int core = policy == BalancingPolicy.SHARED ? 0 : processTable.getCore(p);
+        if (core == ProcessTable.NO_CORE || !queues[core].removeProcess(p)) {
+            return false;
+        }
+        if (policy != BalancingPolicy.SHARED) {
+            updateLoad(core);
+        }
+        queued--;
+        return true;
+    }
+
+    @Override
+    public boolean isRunning(int p) {
+        int core = processTable.getCore(p);
+        return core != ProcessTable.NO_CORE && cores[core].getMyProcess() == p;
+    }
+
+    private int queueSize(int core) {
+        return policy == BalancingPolicy.SHARED ? queues[0].size() : queues[core].size();
+    }
+
+    private void updateLoad(int core) {
+        shortestQueue.setKey(core, queues[core].size());
+        longestQueue.setKey(core, queues[core].size());
+    }
+
+    /**
+     * Records that `p` is now on (or queued for) `core`, counting a migration if it was on another core before.
+     */
+    private void assignCore(int p, int core) {
+        int previous = processTable.getCore(p);
+        if (previous != core) {
+            if (previous != ProcessTable.NO_CORE) {
+                migrations++;
+                cores[core].addMigrationIn();
+            }
+            processTable.setCore(p, core);
+        }
+    }
+
+    int getNumCores() {
+        return cores.length;
+    }
+
+    @Override
+    public int getQueuedProcesses() {
+        return queued;
+    }
+
+    /**
+     * @return the fraction of the cores that are busy right now
+     */
+    @Override
+    public double getBusyFraction() {
+        return (double) busyCores / cores.length;
+    }
+
+    long getMigrations() {
+        return migrations;
+    }
+
+    /**
+     * Starts the per-core statistics over from `now`, when the warm-up period is over.
+     */
+    void resetStatistics(double now) {
+        statisticsStart = now;
+        for (int c = 0; c < cores.length; c++) {
+            busyTimeAtStart[c] = cores[c].getBusyTime(now);
+            migrationsAtStart[c] = cores[c].getMigrationsIn();
+        }
+    }
+
+    /**
+     * @return the utilization of every core over [statisticsStart, totalSimTime]
+     */
+    double[] getCoreUtilizations(double totalSimTime) {
+        double[] utilizations = new double[cores.length];
+        double elapsed = totalSimTime - statisticsStart;
+        for (int c = 0; c < cores.length; c++) {
+            utilizations[c] = elapsed > 0 ? (cores[c].getBusyTime(totalSimTime) - busyTimeAtStart[c]) / elapsed : 0;
+        }
+        return utilizations;
+    }
+
+    long[] getCoreMigrations() {
+        long[] migrationsIn = new long[cores.length];
+        for (int c = 0; c < cores.length; c++) {
+            migrationsIn[c] = cores[c].getMigrationsIn() - migrationsAtStart[c];
+        }
+        return migrationsIn;
+    }
+}
@@ -1,6 +1,78 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * Preemptive Shortest Job First specialization class that inherits from abstract Scheduling Algorithm. The ready
+ * queue is ordered by remaining time, and an arriving process with a shorter remaining time than the running one
+ * preempts it at once - there is no separate event for a preemption, it is handled when the arrival is.
+ *
+ * The completion of the running process is scheduled as soon as it is put on the CPU, and the handle of that event
+ * is kept: a preemption cancels it, and the preempted process gets a new one when it runs again. So an arrival
+ * only has to compare remaining times, and the remaining time of the running process is only written back when it
+ * is preempted.
+ */
+
 class PSJF extends SchedulingAlgorithm {
-    PSJF() {
+    private long pendingCompletion = EventQueue.NO_EVENT;
+
+    PSJF(ProcessTable processTable) {
+        super(processTable);
         this.setSchedulerType(SchedulerType.PSJF);
-        myQueue = ProcessReadyQueue.createSingleProcessReadyQueueInstance(SchedulerType.PSJF.getSchedulerType());
+        myQueue = new ProcessReadyQueue(SchedulerType.PSJF.getSchedulerType(), processTable);
+    }
+
+    @Override
+    public void onArrival(int p, double now) {
+        // add new process to scheduler's ready queue unconditionally
+        // only always use a process from the queue, not p directly
+        addProcessToReadyQueue(p);
+
+        // CPU not busy, give it a process from queue, no preemption possible in this case
+        if (!cpu.isBusy()) {
+            cpu.setBusy(true);
+            dispatchNext(now);
+            return;
+        }
+
+        // else CPU is busy: preempt if the head of the queue (ordered by remaining time) is shorter than what is
+        // left of the running process
+        int running = cpu.getMyProcess();
+        double remaining = processTable.getRemainingCpuTime(running) - (now - processTable.getRestartTime(running));
+        if (processTable.getRemainingCpuTime(safelyPeekAtNextProcess()) < remaining) {
+            eventQueue.cancel(pendingCompletion);
+            processTable.setRemainingCpuTime(running, remaining);
+            if (eventLog != null) {
+                eventLog.record(LogRecordType.PREEMPTION, now, running, 0);
+            }
+            dispatchNext(now);
+            addProcessToReadyQueue(running);
+        }
+    }
+
+    /**
+     * The event payload is the handle of the process on the CPU: its completion would have been cancelled had it
+     * been preempted.
+     */
+    @Override
+    public void onCompletion(int payload, double now) {
+        pendingCompletion = EventQueue.NO_EVENT;
+        context.completeProcess(payload);
+        cpu.setMyProcess(ProcessTable.NO_PROCESS);
+
+        cpu.setBusy(false);
+        if (!myQueue.isEmpty()) {
+            cpu.setBusy(true);
+            dispatchNext(now);
+        }
+    }
+
+    /**
+     * Puts the head of the ready queue on the CPU and schedules its completion.
+     */
+    private void dispatchNext(double now) {
+        int p = getNextProcessForCPU();
+        cpu.setMyProcess(p);
+        checkIfReturningAndSetTimes(p, now);
+        pendingCompletion = eventQueue.insertEvent(EventType.ProcessCompletion,
+                now + processTable.getRemainingCpuTime(p), p);
     }
 }
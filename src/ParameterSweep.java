@@ -0,0 +1,322 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Runs every cell of a `SweepGrid` inside a single JVM. The cells are independent `Simulation`s, so they are
+ * spread over a work-stealing `ForkJoinPool`: the list of runs is split in halves until each task holds a single
+ * run, and idle workers steal the remaining halves from busy ones. This keeps every core busy even though runs at
+ * high lambda take much longer than runs at low lambda.
+ *
+ * All results are kept in memory, in grid order, and written to the output file once at the end of the sweep. The
+ * latency histograms of a run are merged into those of its grid cell as soon as it finishes, and the result only
+ * keeps its percentiles, so the memory a sweep holds grows with its cells, not with its runs times their histograms.
+ * The tail latencies of every cell are written to a second file.
+ *
+ * If the grid names a `results` file, every run is also appended to that `ResultsStore` as soon as it finishes, in
+ * batches, so other sweeps and single runs may append to the same file at the same time.
+ *
+ * A grid with a target precision is run cell by cell instead: every cell is a `ReplicationRunner` that keeps adding
+ * replications until its confidence intervals are narrow enough, and one row per cell - the number of replications
+ * and the mean and half-width of every metric - is written at the end.
+ */
+
+class ParameterSweep {
+
+    private final List<SimulationConfig> configs;
+    private final int threads;
+    private ResultsStore store;     // null unless the grid names a results file
+    private final List<CellLatencies> cells = new ArrayList<>();
+    private final CellLatencies[] cellOfRun;
+
+    ParameterSweep(SweepGrid grid) {
+        this(grid.createConfigs(), grid.getThreads());
+    }
+
+    ParameterSweep(List<SimulationConfig> configs, int threads) {
+        this.configs = configs;
+        this.threads = threads;
+        // the configs are in grid order, so the replications of a cell are next to each other
+        cellOfRun = new CellLatencies[configs.size()];
+        for (int i = 0; i < configs.size(); i++) {
+            if (i == 0 || !sameCell(configs.get(i - 1), configs.get(i))) {
+                cells.add(new CellLatencies(configs.get(i)));
+            }
+            cellOfRun[i] = cells.get(cells.size() - 1);
+        }
+    }
+
+    /**
+     * @return one result per config, in the same order as the configs of the grid
+     */
+    SimulationResult[] run() {
+        SimulationResult[] results = new SimulationResult[configs.size()];
+        String resultsPath = configs.isEmpty() ? null : configs.get(0).getResultsPath();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (ResultsStore s = resultsPath != null ? new ResultsStore(resultsPath) : null) {
+            store = s;
+            pool.invoke(new SweepTask(results, 0, results.length));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    /**
+     * @return the merged latencies of every grid cell, in grid order, once the sweep has run
+     */
+    List<CellLatencies> getCellLatencies() {
+        return cells;
+    }
+
+    /**
+     * Runs every cell until its stopping rule is met, the cells spread over `threads` threads.
+     * @return one summary per runner, in the same order
+     */
+    static ReplicationSummary[] runSequential(List<ReplicationRunner> runners, int threads) {
+        ReplicationSummary[] summaries = new ReplicationSummary[runners.size()];
+        String resultsPath = runners.isEmpty() ? null : runners.get(0).getBaseConfig().getResultsPath();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (ResultsStore store = resultsPath != null ? new ResultsStore(resultsPath) : null) {
+            for (ReplicationRunner runner : runners) {
+                runner.setStore(store);
+            }
+            pool.invoke(new CellTask(runners, summaries, 0, summaries.length));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            pool.shutdown();
+        }
+        return summaries;
+    }
+
+    /**
+     * Like `SweepTask`, but every leaf runs all the replications of one cell.
+     */
+    private static class CellTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ReplicationRunner> runners;
+        private final ReplicationSummary[] summaries;
+        private final int from;
+        private final int to;
+
+        CellTask(List<ReplicationRunner> runners, ReplicationSummary[] summaries, int from, int to) {
+            this.runners = runners;
+            this.summaries = summaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                summaries[from] = runners.get(from).run();
+            } else if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CellTask(runners, summaries, from, mid), new CellTask(runners, summaries, mid, to));
+            }
+        }
+    }
+
+    /**
+     * Splits the range [from, to) of runs in halves until a single run is left, which is then simulated.
+     */
+    private class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SimulationResult[] results;
+        private final int from;
+        private final int to;
+
+        SweepTask(SimulationResult[] results, int from, int to) {
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = new Simulation(configs.get(from)).run();
+                if (store != null) {
+                    try {
+                        store.append(results[from]);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                cellOfRun[from].add(results[from]);
+                results[from].releaseHistograms();
+            } else if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SweepTask(results, from, mid), new SweepTask(results, mid, to));
+            }
+        }
+    }
+
+    /**
+     * Writes the whole result table in one go, one row per run.
+     */
+    static void writeResults(SimulationResult[] results, String path) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path))) {
+            bw.write("Scheduler, Lambda, Average Service Time, Quantum, Replication, Total Sim Time, Average Turnaround, "
+                    + "Throughput, CPU Utilization, Average # of processes in Ready Queue, Average Waiting Time, Completions, "
+                    + "Average # of processes in System, Max # of processes in Ready Queue, "
+                    + "Cores, Migrations, Min Core Utilization, Max Core Utilization, "
+                    + "Turnaround Time Std Dev, Waiting Time Std Dev, Turnaround p50, Turnaround p99, Turnaround p99.9, "
+                    + "Waiting p50, Waiting p99, Waiting p99.9, Response p50, Response p99, Response p99.9, "
+                    + "Rejected, Dropped");
+            for (SimulationResult r : results) {
+                SimulationConfig c = r.getConfig();
+                StringBuilder sb = new StringBuilder();
+                sb.append('\n');
+                sb.append(c.getSchedulerType()).append(',');
+                sb.append(Simulator.formatLambda(c.getLambda())).append(',');
+                sb.append(c.getAvgServiceTime()).append(',');
+                sb.append(c.getQuantumForRR()).append(',');
+                sb.append(c.getReplication()).append(',');
+                sb.append(r.getTotalSimTime()).append(',');
+                sb.append(r.getAvgTurnaroundTime()).append(',');
+                sb.append(r.getThroughput()).append(',');
+                sb.append(r.getCpuUtilization()).append(',');
+                sb.append(r.getAvgProcessesInReadyQueue()).append(',');
+                sb.append(r.getAvgWaitingTime()).append(',');
+                sb.append(r.getCompletions()).append(',');
+                sb.append(r.getAvgProcessesInSystem()).append(',');
+                sb.append(r.getMaxProcessesInReadyQueue()).append(',');
+                sb.append(r.getCores()).append(',');
+                sb.append(r.getMigrations()).append(',');
+                sb.append(r.getMinCoreUtilization()).append(',');
+                sb.append(r.getMaxCoreUtilization()).append(',');
+                sb.append(r.getTurnaroundTimeStdDev()).append(',');
+                sb.append(r.getWaitingTimeStdDev()).append(',');
+                for (double p : SimulationResult.PERCENTILES) {
+                    sb.append(r.getTurnaroundPercentile(p)).append(',');
+                }
+                for (double p : SimulationResult.PERCENTILES) {
+                    sb.append(r.getWaitingPercentile(p)).append(',');
+                }
+                for (double p : SimulationResult.PERCENTILES) {
+                    sb.append(r.getResponsePercentile(p)).append(',');
+                }
+                sb.append(r.getRejected()).append(',');
+                sb.append(r.getDropped());
+                bw.write(sb.toString());
+            }
+        }
+    }
+
+    /**
+     * Writes one row per cell of a sequential sweep: its replications and the mean and half-width of every metric.
+     */
+    static void writeSummaries(ReplicationSummary[] summaries, String path) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path))) {
+            StringBuilder sb = new StringBuilder("Scheduler, Lambda, Average Service Time, Quantum, Replications, Converged");
+            for (ResultColumn metric : ReplicationRunner.METRICS) {
+                sb.append(", ").append(metric).append(", ").append(metric).append(" half-width");
+            }
+            bw.write(sb.toString());
+            for (ReplicationSummary s : summaries) {
+                SimulationConfig c = s.getConfig();
+                sb.setLength(0);
+                sb.append('\n');
+                sb.append(c.getSchedulerType()).append(',');
+                sb.append(Simulator.formatLambda(c.getLambda())).append(',');
+                sb.append(c.getAvgServiceTime()).append(',');
+                sb.append(c.getQuantumForRR()).append(',');
+                sb.append(s.getReplications()).append(',');
+                sb.append(s.isConverged());
+                for (ResultColumn metric : ReplicationRunner.METRICS) {
+                    sb.append(',').append(s.getMean(metric)).append(',').append(s.getHalfWidth(metric));
+                }
+                bw.write(sb.toString());
+            }
+        }
+    }
+
+    /**
+     * Writes one row per grid cell, with the histograms of all its replications merged.
+     */
+    static void writeLatencies(List<CellLatencies> cells, String path) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path))) {
+            bw.write("Scheduler, Lambda, Average Service Time, Quantum, Replications, Completions, "
+                    + "Turnaround p50, Turnaround p99, Turnaround p99.9, Turnaround Max, "
+                    + "Waiting p50, Waiting p99, Waiting p99.9, Waiting Max, "
+                    + "Response p50, Response p99, Response p99.9, Response Max");
+            for (CellLatencies cell : cells) {
+                SimulationConfig c = cell.config;
+                LatencyHistogram turnaround = cell.turnaround;
+                LatencyHistogram waiting = cell.waiting;
+                LatencyHistogram response = cell.response;
+
+                StringBuilder sb = new StringBuilder();
+                sb.append('\n');
+                sb.append(c.getSchedulerType()).append(',');
+                sb.append(Simulator.formatLambda(c.getLambda())).append(',');
+                sb.append(c.getAvgServiceTime()).append(',');
+                sb.append(c.getQuantumForRR()).append(',');
+                sb.append(cell.replications).append(',');
+                sb.append(turnaround.getTotalCount()).append(',');
+                appendPercentiles(sb, turnaround).append(',').append(turnaround.getMax()).append(',');
+                appendPercentiles(sb, waiting).append(',').append(waiting.getMax()).append(',');
+                appendPercentiles(sb, response).append(',').append(response.getMax());
+                bw.write(sb.toString());
+            }
+        }
+    }
+
+    /**
+     * The latency histograms of all the finished replications of one grid cell, merged. Runs of the same cell may
+     * finish on different threads at the same time.
+     */
+    static final class CellLatencies {
+        private final SimulationConfig config;
+        private final LatencyHistogram turnaround = new LatencyHistogram();
+        private final LatencyHistogram waiting = new LatencyHistogram();
+        private final LatencyHistogram response = new LatencyHistogram();
+        private int replications;
+
+        CellLatencies(SimulationConfig config) {
+            this.config = config;
+        }
+
+        synchronized void add(SimulationResult r) {
+            turnaround.add(r.getTurnaroundHistogram());
+            waiting.add(r.getWaitingHistogram());
+            response.add(r.getResponseHistogram());
+            replications++;
+        }
+    }
+
+    /**
+     * @return the path of the latency file that goes with the results file `path`: sweep.csv -> sweep-latency.csv
+     */
+    static String latencyPath(String path) {
+        int dot = path.lastIndexOf('.');
+        if (dot <= Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'))) {
+            return path + "-latency";
+        }
+        return path.substring(0, dot) + "-latency" + path.substring(dot);
+    }
+
+    private static boolean sameCell(SimulationConfig a, SimulationConfig b) {
+        return a.getSchedulerType() == b.getSchedulerType() && a.getLambda() == b.getLambda()
+                && a.getAvgServiceTime() == b.getAvgServiceTime() && a.getQuantumForRR() == b.getQuantumForRR();
+    }
+
+    private static StringBuilder appendPercentiles(StringBuilder sb, LatencyHistogram h) {
+        return sb.append(h.getValueAtPercentile(50)).append(',')
+                .append(h.getValueAtPercentile(99)).append(',')
+                .append(h.getValueAtPercentile(99.9));
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * The runnable processes of the stride scheduler in a binary min-heap ordered by pass value, so the process with
+ * the smallest pass is found in O(1) and queueing or removing one takes O(log n). Processes with equal pass are
+ * ordered by insertion, so ties are broken first-in first-out and a run is deterministic.
+ *
+ * The heap holds process handles in an `int[]`; the pass values are read from the `ProcessTable`.
+ */
+
+final class PassHeap {
+    private final ProcessTable processTable;
+    private int[] heap = new int[64];
+    private long[] seq = new long[64];     // insertion number of each queued handle
+    private long nextSeq;
+    private int size;
+
+    PassHeap(ProcessTable processTable) {
+        this.processTable = processTable;
+    }
+
+    void insert(int p) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        if (p >= seq.length) {
+            seq = Arrays.copyOf(seq, Math.max(p + 1, seq.length * 2));
+        }
+        seq[p] = nextSeq++;
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(p, heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = p;
+    }
+
+    /**
+     * @return the process with the smallest pass, removed, or `ProcessTable.NO_PROCESS` if empty
+     */
+    int removeMin() {
+        if (size == 0) {
+            return ProcessTable.NO_PROCESS;
+        }
+        int min = heap[0];
+        int last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], last)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return min;
+    }
+
+    int peekMin() {
+        return size == 0 ? ProcessTable.NO_PROCESS : heap[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private boolean less(int a, int b) {
+        long passA = processTable.getPass(a);
+        long passB = processTable.getPass(b);
+        return passA < passB || (passA == passB && seq[a] < seq[b]);
+    }
+}
@@ -3,6 +3,7 @@
  *
  * Provides a contract for the type of metrics all schedulers will need to calculate. Requires continuously updating
  * certain intermediate variables (using values obtained as each Process is dealt with) throughout the simulation.
+ * Queue lengths and utilization are time-weighted averages over the whole run.
  */
 
 public interface PerformanceMetrics {
@@ -13,7 +14,18 @@ public interface PerformanceMetrics {
 
     double cpuUtilization(double totalSimTime);
 
-    double avgProcessesInReadyQueue(int lambda);
+    double avgProcessesInReadyQueue(double totalSimTime);
+
+    double avgProcessesInSystem(double totalSimTime);
+
+    double maxProcessesInReadyQueue();
 
     double avgWaitingTime(double totalSimTime);
+
+    // tail latencies of the completed processes, e.g. percentile = 99.9
+    double turnaroundTimePercentile(double percentile);
+
+    double waitingTimePercentile(double percentile);
+
+    double responseTimePercentile(double percentile);
 }
@@ -0,0 +1,34 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * The synthetic workload: arrivals form a Poisson process with rate `lambda` (exponential inter-arrival times) and
+ * burst times are exponential with mean `avgServiceTime`, both drawn from the simulation's `RandomStreams`. The
+ * first process arrives at time 0 and the source never runs out.
+ */
+
+final class PoissonArrivals implements ArrivalSource {
+    private final RandomStreams randomStreams;
+    private final double lambda;              // average rate of arrival
+    private final double avgServiceTime;
+
+    PoissonArrivals(RandomStreams randomStreams, double lambda, double avgServiceTime) {
+        this.randomStreams = randomStreams;
+        this.lambda = lambda;
+        this.avgServiceTime = avgServiceTime;
+    }
+
+    @Override
+    public double firstArrivalTime() {
+        return 0;
+    }
+
+    @Override
+    public double nextArrivalTime(double now) {
+        return now + randomStreams.nextInterArrivalTime(lambda);
+    }
+
+    @Override
+    public double nextBurstTime() {
+        return randomStreams.nextServiceTime(avgServiceTime);
+    }
+}
@@ -1,117 +1,251 @@
-import java.util.LinkedList;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.Arrays;
 
 /***
  * @author Jack Shendrikov
  *
- * This class behaves as `static` - declared `final` to prevent extension of the class.
- * Private constructor prevents instantiation by client code as we do not want to instantiate.
- * Make all the members and functions of the class static - since the class cannot be instantiated,
- * so no instance methods can be called or instance fields accessed.
+ * Each scheduler creates its own process ready queue, so every `Simulation` works on a separate queue and runs
+ * cannot see each other's processes. The queue holds process handles of the simulation's `ProcessTable` in a
+ * single `int[]`, so queueing a process allocates nothing.
  *
  * The process ready queue is implemented in different way depending on the scheduler.
- *      1) If PSJF - use remaining time to sort queue
+ *      1) If PSJF - an indexed binary min-heap keyed by the remaining time of each process in the table. `positions`
+ *         maps a process handle to its index in the heap, so a queued process can be removed, or have its remaining
+ *         time changed and be moved to its new place, in O(log n). The remaining time of a queued process must only
+ *         be changed through `updateRemainingCpuTime` - written to the table directly it would break the heap order
  *      2) If RR - starts off with arrival time but an early arriving process with a long burst time may end up at the back
- *         of the line, so need a simple list to maintain order. A pre-empted process will go to the tail. After quantum
- *         expires, next process is obtained from the head.
+ *         of the line, so need a simple FIFO (a ring buffer) to maintain order. A pre-empted process will go to the
+ *         tail. After quantum expires, next process is obtained from the head.
  */
 
 final class ProcessReadyQueue {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NOT_QUEUED = -1;
 
-    // serves as single instance of PRQ to be used throughout simulation
-    private static ProcessReadyQueue obj = null;
+    private final ProcessTable processTable;
+    private final boolean orderedByRemainingTime;
 
-    private static Queue<Process> schedulerPriorityQueue;
+    private int[] processes = new int[INITIAL_CAPACITY];
+    private int head;   // ring buffer only: index of the first process
+    private int size;
+    private int[] positions;   // heap only: index in `processes` of each handle, or NOT_QUEUED
 
-    // private Constructor will prevent the instantiation of this class directly
-    private ProcessReadyQueue(int schedulerType) {
-        createProcessReadyQueue(schedulerType);
+    /**
+     * @param schedulerType
+     * depending on the argument passed to the constructor, create a Process Ready Queue for the scheduler:
+     *      - PSJF -> ordered by remaining burst times.
+     *      - RR -> queue is a simple FIFO where we insert at the tail and retrieve from the head
+     */
+    ProcessReadyQueue(int schedulerType, ProcessTable processTable) {
+        this.processTable = processTable;
+        this.orderedByRemainingTime = schedulerType == SchedulerType.PSJF.getSchedulerType();
+        if (orderedByRemainingTime) {
+            positions = new int[INITIAL_CAPACITY];
+            Arrays.fill(positions, NOT_QUEUED);
+        }
+    }
+
+    void insertProcess(int p) {
+        if (size == processes.length) {
+            grow();
+        }
+        if (orderedByRemainingTime) {
+            if (p >= positions.length) {
+                growPositions(p);
+            }
+            siftUp(size++, p);
+        } else {
+            // add to end of the ring
+            processes[(head + size++) & (processes.length - 1)] = p;
+        }
     }
 
     /**
-     * @return the instantiated object of our process ready queue, the only one permitted
+     * @return the handle at the head of the queue, removed, or `ProcessTable.NO_PROCESS` if the queue is empty
      */
-    static ProcessReadyQueue createSingleProcessReadyQueueInstance(int schedulerType) {
-
-        // this logic will ensure that no more than one object can be created at a time
-        if (obj == null) {
-            obj = new ProcessReadyQueue(schedulerType);
+    int returnAndRemoveHeadProcess() {
+        if (size == 0) {
+            return ProcessTable.NO_PROCESS;
+        }
+        if (orderedByRemainingTime) {
+            int top = processes[0];
+            removeAt(0);
+            return top;
         }
-        return obj;
+        int p = processes[head];
+        head = (head + 1) & (processes.length - 1);
+        size--;
+        return p;
     }
 
     /**
-     * @param schedulerType
-     * depending on the argument passed to the constructor, create a Process Ready Queue for the scheduler
-     * Each has it's own comparator:
-     *      - PSJF -> uses remainingBurst times.
-     *      - RR -> queue is a simple list where we insert at the tail and retrieve from the head
+     * Removes `p` from anywhere in the queue: O(log n) from the PSJF heap. A FIFO ring has to be searched, and the
+     * shorter side of the ring - the processes ahead of `p` or those behind it - moves up one place to close the gap;
+     * the head of the ring comes off in O(1).
+     * @return false if `p` was not queued
      */
-    private void createProcessReadyQueue(int schedulerType) {
-        // PSJF
-        if (schedulerType == 1) {
-            ProcessRemainingTimeComparator PSJFComparator = new ProcessRemainingTimeComparator();
-            schedulerPriorityQueue = new PriorityQueue<>(10, PSJFComparator);
+    boolean removeProcess(int p) {
+        if (orderedByRemainingTime) {
+            if (!contains(p)) {
+                return false;
+            }
+            removeAt(positions[p]);
+            return true;
+        }
+        int mask = processes.length - 1;
+        for (int i = 0; i < size; i++) {
+            if (processes[(head + i) & mask] == p) {
+                if (i < size / 2) {
+                    // the processes ahead move back one place, the head moves past the gap
+                    for (int j = i; j > 0; j--) {
+                        processes[(head + j) & mask] = processes[(head + j - 1) & mask];
+                    }
+                    head = (head + 1) & mask;
+                } else {
+                    for (int j = i + 1; j < size; j++) {
+                        processes[(head + j - 1) & mask] = processes[(head + j) & mask];
+                    }
+                }
+                size--;
+                return true;
+            }
         }
+        return false;
+    }
 
-        // RR
-        else if (schedulerType == 2) {
-            schedulerPriorityQueue = new LinkedList<>();
+    /**
+     * Sets the remaining time of `p` and, if it is queued, moves it to its new place in the heap - decrease-key
+     * when the remaining time went down. A FIFO ring is not ordered by remaining time, so there only the table is
+     * written.
+     */
+    void updateRemainingCpuTime(int p, double remainingCpuTime) {
+        double old = processTable.getRemainingCpuTime(p);
+        processTable.setRemainingCpuTime(p, remainingCpuTime);
+        if (!orderedByRemainingTime || !contains(p)) {
+            return;
+        }
+        if (remainingCpuTime < old) {
+            siftUp(positions[p], p);
+        } else {
+            siftDown(positions[p], p);
         }
     }
 
-    void insertProcess(Process p) {
-        // adds to queue or if List, to end of list
-        schedulerPriorityQueue.add(p);
+    boolean isEmpty() {
+        return size == 0;
     }
 
-    Process returnAndRemoveHeadProcess() {
-        // retrieve and remove head
-        return schedulerPriorityQueue.poll();
+    int size() {
+        return size;
     }
 
-    boolean isEmpty() {
-        return schedulerPriorityQueue.isEmpty();
+    /**
+     * @return the handle at the head of the queue, or `ProcessTable.NO_PROCESS` if the queue is empty
+     */
+    int peek() {
+        if (size == 0) {
+            return ProcessTable.NO_PROCESS;
+        }
+        return orderedByRemainingTime ? processes[0] : processes[head];
     }
 
-    Process peek() {
-        return schedulerPriorityQueue.peek();
+    /**
+     * @return the i-th queued process (in storage order, not queue order), for scanning the whole queue
+     */
+    private int get(int i) {
+        return orderedByRemainingTime ? processes[i] : processes[(head + i) & (processes.length - 1)];
     }
 
     /**
-     * This method is optional and allows the simulator to produce a "non-flat" curve.
+     * @return true if `p` is in the heap. PSJF only - a FIFO ring is not indexed by process.
+     */
+    private boolean contains(int p) {
+        return p < positions.length && positions[p] != NOT_QUEUED;
+    }
+
+    /**
+     * Takes the process at heap index `i` out of the queue and fills the hole with the last process.
      */
-    void iterateAndGetRemainingDifferenceForPSJF(double finalTime) {
-        for(Process p : schedulerPriorityQueue) {
-            Simulator.numProcessesHandled++;
-            p.setCompletionTime(finalTime);
-            double completionMinusStart = p.getCompletionTime() - p.getStartTime();
-            p.setTurnaroundTime(p.getCompletionTime() - p.getArrivalTime());
-            p.setWaitingTime((p.getStartTime() - p.getArrivalTime())
-                    + (completionMinusStart - p.getBurstTime()));
-            if (p.isReturning()) {
-                SchedulingAlgorithm.runningBurstTimeSum += p.getBurstTime();
+    private void removeAt(int i) {
+        positions[processes[i]] = NOT_QUEUED;
+        int last = processes[--size];
+        if (i == size) {
+            return;
+        }
+        if (i > 0 && processTable.getRemainingCpuTime(last)
+                < processTable.getRemainingCpuTime(processes[(i - 1) >>> 1])) {
+            siftUp(i, last);
+        } else {
+            siftDown(i, last);
+        }
+    }
+
+    private void siftUp(int hole, int p) {
+        double key = processTable.getRemainingCpuTime(p);
+        while (hole > 0) {
+            int parent = (hole - 1) >>> 1;
+            if (processTable.getRemainingCpuTime(processes[parent]) <= key) {
+                break;
             }
-            SchedulingAlgorithm.runningTurnaroundSum += p.getTurnaroundTime();
-            SchedulingAlgorithm.runningWaitTimeSum += p.getWaitingTime();
+            processes[hole] = processes[parent];
+            positions[processes[hole]] = hole;
+            hole = parent;
         }
+        processes[hole] = p;
+        positions[p] = hole;
+    }
+
+    private void siftDown(int hole, int p) {
+        double key = processTable.getRemainingCpuTime(p);
+        int half = size >>> 1;
+        while (hole < half) {
+            int child = 2 * hole + 1;
+            int right = child + 1;
+            if (right < size && processTable.getRemainingCpuTime(processes[right])
+                    < processTable.getRemainingCpuTime(processes[child])) {
+                child = right;
+            }
+            if (key <= processTable.getRemainingCpuTime(processes[child])) {
+                break;
+            }
+            processes[hole] = processes[child];
+            positions[processes[hole]] = hole;
+            hole = child;
+        }
+        processes[hole] = p;
+        positions[p] = hole;
+    }
+
+    private void grow() {
+        int[] bigger = new int[processes.length << 1];
+        // unroll the ring so the queue starts at index 0 again (a heap is already at index 0)
+        for (int i = 0; i < size; i++) {
+            bigger[i] = get(i);
+        }
+        processes = bigger;
+        head = 0;
+    }
+
+    private void growPositions(int p) {
+        int old = positions.length;
+        positions = Arrays.copyOf(positions, Math.max(p + 1, old << 1));
+        Arrays.fill(positions, old, positions.length, NOT_QUEUED);
     }
 
     /**
-     * Unlike the preceeding method for PSJF, this method is necessary for proper calculation of RR CPU Utilization.
-     * The reason is - after lambda = 16.667 (approximation from curve, also via 1/0.06 = 16.667), the ready queue
-     * gets backed up from too many arriving processes. Round Robin begins to degenerate and provides quantums of service
-     * to some processes that never get a chance to complete. But the amount of CPU service they receive needs to be accounted.
-     * Here, we simply add it back in to the numerator to obtain the correct result.
+     * This method is optional and allows the simulator to produce a "non-flat" curve.
+     * @return the number of processes that were counted
      */
-    void iterateAndGetRemainingDifferenceForRR() {
-        double workPerformed;
-        for(Process p : schedulerPriorityQueue) {
-            if (p.isReturning()) {
-                workPerformed = p.getBurstTime() - p.getRemainingCpuTime();
-                SchedulingAlgorithm.runningBurstTimeSum += workPerformed;
-            }
+    int iterateAndGetRemainingDifferenceForPSJF(SchedulingAlgorithm s, double finalTime) {
+        for (int i = 0; i < size; i++) {
+            int p = get(i);
+            processTable.setCompletionTime(p, finalTime);
+            double completionMinusStart = finalTime - processTable.getStartTime(p);
+            double turnaroundTime = finalTime - processTable.getArrivalTime(p);
+            double waitingTime = (processTable.getStartTime(p) - processTable.getArrivalTime(p))
+                    + (completionMinusStart - processTable.getBurstTime(p));
+            s.turnaroundTimes.add(turnaroundTime);
+            s.waitingTimes.add(waitingTime);
         }
+        return size;
     }
 }
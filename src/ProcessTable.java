@@ -0,0 +1,211 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * All live processes of a simulation, stored column by column: each time a process maintains (arrival, burst,
+ * remaining, start, restart and completion) is kept in its own primitive array, and a process is identified by an
+ * int handle - its index in those arrays. The ready queues, the CPU and the event payloads refer to processes by
+ * handle only.
+ *
+ * When a process completes its slot is put back on a free list and reused by a later arrival, so the table never
+ * holds more slots than the largest number of processes that were in the system at the same time, no matter how
+ * many processes the run handles in total.
+ */
+
+final class ProcessTable {
+    static final int NO_PROCESS = -1;
+    static final int NO_CORE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] id;                 // number of the process in order of arrival, from 0; unlike the handle never reused
+    private double[] arrivalTime;      // same as the ProcessArrival event time.
+    private double[] burstTime;        // obtained by passing 1/avgServiceTime as the lambda in genexp(lambda)
+    private double[] remainingCpuTime; // initialized to burst time and then used to track the process's progress on the CPU
+    private double[] startTime;        // = clock when first given to CPU
+    private double[] restartTime;      // = clock when last given to CPU
+    private double[] completionTime;
+    private boolean[] returning;       // set once the process has been on the CPU
+    private int[] core;                // multi-core runs: the core the process last ran or was queued on
+    private int[] weight;              // CFS: load weight of the process's nice level
+    private double[] vruntime;         // CFS: CPU time received, scaled by NICE_0_WEIGHT / weight
+    private int[] tickets;             // lottery and stride: tickets held by the process
+    private long[] pass;               // stride: virtual time of the process, advanced by its stride every quantum
+
+    private int[] nextFree;            // links the free slots together
+    private int freeHead = NO_PROCESS;
+    private int allocated;             // slots handed out at least once
+    private long nextId;
+    private int liveProcesses;
+
+    ProcessTable() {
+        id = new long[INITIAL_CAPACITY];
+        arrivalTime = new double[INITIAL_CAPACITY];
+        burstTime = new double[INITIAL_CAPACITY];
+        remainingCpuTime = new double[INITIAL_CAPACITY];
+        startTime = new double[INITIAL_CAPACITY];
+        restartTime = new double[INITIAL_CAPACITY];
+        completionTime = new double[INITIAL_CAPACITY];
+        returning = new boolean[INITIAL_CAPACITY];
+        core = new int[INITIAL_CAPACITY];
+        weight = new int[INITIAL_CAPACITY];
+        vruntime = new double[INITIAL_CAPACITY];
+        tickets = new int[INITIAL_CAPACITY];
+        pass = new long[INITIAL_CAPACITY];
+        nextFree = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @return the handle of a new process that arrives at `arrival` and needs `burst` of CPU time
+     */
+    int createProcess(double arrival, double burst) {
+        int p;
+        if (freeHead != NO_PROCESS) {
+            p = freeHead;
+            freeHead = nextFree[p];
+        } else {
+            if (allocated == arrivalTime.length) {
+                grow();
+            }
+            p = allocated++;
+        }
+        id[p] = nextId++;
+        arrivalTime[p] = arrival;
+        burstTime[p] = burst;
+        remainingCpuTime[p] = burst;
+        startTime[p] = 0;
+        restartTime[p] = 0;
+        completionTime[p] = 0;
+        returning[p] = false;
+        core[p] = NO_CORE;
+        weight[p] = CFS.NICE_0_WEIGHT;
+        vruntime[p] = 0;
+        tickets[p] = 1;
+        pass[p] = 0;
+        liveProcesses++;
+        return p;
+    }
+
+    /**
+     * Returns the slot of a completed process to the free list. The handle must not be used afterwards.
+     */
+    void releaseProcess(int p) {
+        id[p] = -1;    // a stale reference to the slot no longer matches any process
+        nextFree[p] = freeHead;
+        freeHead = p;
+        liveProcesses--;
+    }
+
+    int getLiveProcesses() {
+        return liveProcesses;
+    }
+
+    /**
+     * @return the number of slots in use or on the free list - the high-water mark of live processes
+     */
+    int getCapacityUsed() {
+        return allocated;
+    }
+
+    private void grow() {
+        int capacity = arrivalTime.length << 1;
+        id = Arrays.copyOf(id, capacity);
+        arrivalTime = Arrays.copyOf(arrivalTime, capacity);
+        burstTime = Arrays.copyOf(burstTime, capacity);
+        remainingCpuTime = Arrays.copyOf(remainingCpuTime, capacity);
+        startTime = Arrays.copyOf(startTime, capacity);
+        restartTime = Arrays.copyOf(restartTime, capacity);
+        completionTime = Arrays.copyOf(completionTime, capacity);
+        returning = Arrays.copyOf(returning, capacity);
+        core = Arrays.copyOf(core, capacity);
+        weight = Arrays.copyOf(weight, capacity);
+        vruntime = Arrays.copyOf(vruntime, capacity);
+        tickets = Arrays.copyOf(tickets, capacity);
+        pass = Arrays.copyOf(pass, capacity);
+        nextFree = Arrays.copyOf(nextFree, capacity);
+    }
+
+
+    /* Getters and Setters, by process handle */
+    long getId(int p) {
+        return id[p];
+    }
+
+    double getArrivalTime(int p) {
+        return arrivalTime[p];
+    }
+
+    double getBurstTime(int p) {
+        return burstTime[p];
+    }
+
+    double getRemainingCpuTime(int p) {
+        return remainingCpuTime[p];
+    }
+    void setRemainingCpuTime(int p, double remaining) {
+        remainingCpuTime[p] = remaining;
+    }
+
+    double getStartTime(int p) {
+        return startTime[p];
+    }
+    void setStartTime(int p, double start) {
+        startTime[p] = start;
+    }
+
+    double getRestartTime(int p) {
+        return restartTime[p];
+    }
+    void setRestartTime(int p, double restart) {
+        restartTime[p] = restart;
+    }
+
+    double getCompletionTime(int p) {
+        return completionTime[p];
+    }
+    void setCompletionTime(int p, double completion) {
+        completionTime[p] = completion;
+    }
+
+    boolean isReturning(int p) {
+        return returning[p];
+    }
+    void setIsReturning(int p, boolean isReturning) {
+        returning[p] = isReturning;
+    }
+
+    int getCore(int p) {
+        return core[p];
+    }
+    void setCore(int p, int c) {
+        core[p] = c;
+    }
+
+    int getWeight(int p) {
+        return weight[p];
+    }
+    void setWeight(int p, int w) {
+        weight[p] = w;
+    }
+
+    double getVruntime(int p) {
+        return vruntime[p];
+    }
+    void setVruntime(int p, double v) {
+        vruntime[p] = v;
+    }
+
+    int getTickets(int p) {
+        return tickets[p];
+    }
+    void setTickets(int p, int t) {
+        tickets[p] = t;
+    }
+
+    long getPass(int p) {
+        return pass[p];
+    }
+    void setPass(int p, long v) {
+        pass[p] = v;
+    }
+}
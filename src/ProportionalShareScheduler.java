@@ -0,0 +1,117 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Common part of the proportional-share schedulers, `Lottery` and `Stride`. Every process holds a number of
+ * tickets, drawn from the configured `TicketDistribution` when it arrives, and runs for a fixed quantum at a time
+ * like under Round Robin; the subclasses only decide which queued process gets the next quantum.
+ *
+ * It also measures how fair the schedule was. While a process is in the system it is entitled to
+ * `tickets / (tickets of all processes in the system)` of the CPU; integrating `1 / (total tickets)` over time
+ * gives a "share clock", so the CPU time a process was entitled to over its whole life is its tickets times the
+ * advance of the share clock between its arrival and its completion - O(1) per process, however many others come
+ * and go meanwhile. On completion the CPU time it actually received (its service time) is compared with that:
+ *      - share ratio: received / entitled per process, with mean and standard deviation - 1 is perfectly fair;
+ *      - share error: sum |received - entitled| / sum entitled over all completed processes.
+ */
+
+abstract class ProportionalShareScheduler extends TimeSlicedScheduler {
+    private final double quantum;
+    private final TicketDistribution tickets;
+    private final SplittableRandom ticketCounts;
+
+    private long ticketsInSystem;              // tickets of all processes that have arrived and not completed
+    private final CompensatedSum shareClock = new CompensatedSum();
+    private double shareClockTime;
+    private double[] shareClockAtArrival = new double[64];
+
+    private final RunningStatistic shareRatios = new RunningStatistic();
+    private final CompensatedSum entitledTime = new CompensatedSum();
+    private final CompensatedSum shareDeviation = new CompensatedSum();
+
+    ProportionalShareScheduler(ProcessTable processTable, double quantum, TicketDistribution tickets,
+                               SplittableRandom ticketCounts) {
+        super(processTable);
+        this.quantum = quantum;
+        this.tickets = tickets;
+        this.ticketCounts = ticketCounts;
+    }
+
+    @Override
+    public void onArrival(int p, double now) {
+        processTable.setTickets(p, tickets.next(ticketCounts));
+        super.onArrival(p, now);
+    }
+
+    // which queued process runs next is up to the subclass
+    abstract void enqueue(int p);
+
+    @Override
+    void addProcessToReadyQueue(int p) {
+        if (!processTable.isReturning(p)) {
+            // a new process: from now on it is entitled to its share of the CPU
+            if (p >= shareClockAtArrival.length) {
+                shareClockAtArrival = Arrays.copyOf(shareClockAtArrival, Math.max(p + 1, shareClockAtArrival.length * 2));
+            }
+            shareClockAtArrival[p] = shareClock.getSum();
+            ticketsInSystem += processTable.getTickets(p);
+        }
+        enqueue(p);
+    }
+
+    @Override
+    double getQuantum(int p) {
+        return quantum;
+    }
+
+    @Override
+    void onProcessCompleted(int p, double ranFor) {
+        int tickets = processTable.getTickets(p);
+        double entitled = tickets * (shareClock.getSum() - shareClockAtArrival[p]);
+        double received = processTable.getBurstTime(p);
+        ticketsInSystem -= tickets;
+        if (entitled > 0) {
+            shareRatios.add(received / entitled);
+            entitledTime.add(entitled);
+            shareDeviation.add(Math.abs(received - entitled));
+        }
+    }
+
+    @Override
+    void resetStatistics(double now) {
+        super.resetStatistics(now);
+        shareRatios.reset();
+        entitledTime.reset();
+        shareDeviation.reset();
+    }
+
+    @Override
+    void recordStateUntil(double now, double busyFraction, int queuedProcesses, int liveProcesses) {
+        super.recordStateUntil(now, busyFraction, queuedProcesses, liveProcesses);
+        if (ticketsInSystem > 0) {
+            shareClock.add((now - shareClockTime) / ticketsInSystem);
+        }
+        shareClockTime = now;
+    }
+
+    /**
+     * @return the mean over the completed processes of the CPU time received divided by the CPU time their
+     * tickets entitled them to
+     */
+    double getShareRatio() {
+        return shareRatios.getMean();
+    }
+
+    double getShareRatioStandardDeviation() {
+        return shareRatios.getStandardDeviation();
+    }
+
+    /**
+     * @return the total absolute difference between received and entitled CPU time, relative to the entitled time
+     */
+    double getShareError() {
+        return entitledTime.getSum() > 0 ? shareDeviation.getSum() / entitledTime.getSum() : 0;
+    }
+}
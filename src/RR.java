@@ -1,12 +1,27 @@
 /***
  * @author Jack Shendrikov
  *
- * Round Robin specialization class that inherits from abstract Scheduling Algorithm
+ * Round Robin specialization class that inherits from abstract Scheduling Algorithm. A process alone in the system
+ * keeps the CPU from one quantum to the next, so its quanta are coalesced (see `TimeSlicedScheduler`).
  */
 
-class RR extends SchedulingAlgorithm {
-    RR() {
+class RR extends TimeSlicedScheduler {
+    private final double quantum;
+
+    RR(ProcessTable processTable, double quantum) {
+        super(processTable);
         this.setSchedulerType(SchedulerType.RR);
-        myQueue = ProcessReadyQueue.createSingleProcessReadyQueueInstance(SchedulerType.RR.getSchedulerType());
+        this.quantum = quantum;
+        myQueue = new ProcessReadyQueue(SchedulerType.RR.getSchedulerType(), processTable);
+    }
+
+    @Override
+    double getQuantum(int p) {
+        return quantum;
+    }
+
+    @Override
+    boolean coalescesQuanta() {
+        return true;
     }
 }
@@ -0,0 +1,57 @@
+import java.util.SplittableRandom;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * The random numbers of one simulation. Everything is derived from a single seed, so a run can be reproduced
+ * exactly by running its config again. Inter-arrival times and service times are drawn from two independent
+ * streams split off the seeded generator: changing how many numbers one of them consumes does not shift the
+ * other. Further streams (e.g. for a scheduler that draws random numbers) are split off with `newStream()`.
+ *
+ * `SplittableRandom` is not thread-safe, but it doesn't need to be - each simulation owns its streams - and unlike
+ * `java.util.Random` it has no shared state and nothing to contend on when many simulations run in parallel.
+ */
+
+final class RandomStreams {
+    private final SplittableRandom root;
+    private final SplittableRandom arrivals;
+    private final SplittableRandom services;
+
+    RandomStreams(long seed) {
+        root = new SplittableRandom(seed);
+        arrivals = root.split();
+        services = root.split();
+    }
+
+    /**
+     * @return exponentially distributed time until the next arrival of a Poisson process with rate `lambda`
+     */
+    double nextInterArrivalTime(double lambda) {
+        return genexp(arrivals, lambda);
+    }
+
+    /**
+     * @return exponentially distributed burst time with mean `avgServiceTime`
+     */
+    double nextServiceTime(double avgServiceTime) {
+        return genexp(services, 1 / avgServiceTime);
+    }
+
+    /**
+     * @return a new generator, independent of the arrival and service streams
+     */
+    SplittableRandom newStream() {
+        return root.split();
+    }
+
+    /**
+     * @return an exponentially distributed value with rate `lambda`, never exactly zero
+     */
+    private static double genexp(SplittableRandom random, double lambda) {
+        double x = 0;
+        while (x == 0) {
+            x = ExponentialSampler.sample(random) / lambda;
+        }
+        return x;
+    }
+}
@@ -0,0 +1,283 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Runs independent replications of one config until the metrics are known precisely enough, and reports the mean
+ * and confidence interval of every metric. Replication i runs with the i-th seed drawn from the config's seed, so
+ * the replications are independent and the whole experiment is reproducible.
+ *
+ * The stopping rule is sequential: after each replication (and at least `minReplications`), the half-width of the
+ * Student t confidence interval of every metric in `stopOn` is compared to `precision` times its mean, and the
+ * experiment stops as soon as all of them are below it, or after `maxReplications`. Runs at low load then finish
+ * after a few replications, while noisy points near saturation get as many as they need.
+ *
+ * Replications run in waves of `threads` in parallel. The results of a wave are taken in replication order and the
+ * rule is applied after each one, so the replications that count - and the reported numbers - are the same however
+ * many threads are used; the rest of the last wave is discarded.
+ */
+
+final class ReplicationRunner {
+    // the values of `PerformanceMetrics` a replication yields
+    static final ResultColumn[] METRICS = {
+            ResultColumn.AVG_TURNAROUND, ResultColumn.THROUGHPUT, ResultColumn.CPU_UTILIZATION,
+            ResultColumn.AVG_READY_QUEUE, ResultColumn.AVG_SYSTEM, ResultColumn.MAX_READY_QUEUE,
+            ResultColumn.AVG_WAITING, ResultColumn.TURNAROUND_P50, ResultColumn.TURNAROUND_P99,
+            ResultColumn.TURNAROUND_P999, ResultColumn.WAITING_P50, ResultColumn.WAITING_P99,
+            ResultColumn.WAITING_P999, ResultColumn.RESPONSE_P50, ResultColumn.RESPONSE_P99,
+            ResultColumn.RESPONSE_P999};
+
+    private final SimulationConfig baseConfig;
+    private double precision = 0.05;          // target relative half-width
+    private double confidence = 0.95;
+    private int minReplications = 3;
+    private int maxReplications = 1000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private ResultColumn[] stopOn = {ResultColumn.AVG_TURNAROUND, ResultColumn.AVG_WAITING};
+    private ResultsStore store;               // every replication that counts is appended here, if not null
+
+    ReplicationRunner(SimulationConfig baseConfig) {
+        this.baseConfig = baseConfig;
+    }
+
+    /**
+     * Sets a parameter of the stopping rule given as `key=value`.
+     * @return false if `key` is not one, so that it can be passed on to the simulation config
+     */
+    boolean setParameter(String key, String value) {
+        switch (key) {
+            case "precision":
+                setPrecision(Double.parseDouble(value));
+                break;
+            case "confidence":
+                setConfidence(Double.parseDouble(value));
+                break;
+            case "minReplications":
+                setReplicationRange(Integer.parseInt(value.trim()), maxReplications);
+                break;
+            case "maxReplications":
+                setReplicationRange(minReplications, Integer.parseInt(value.trim()));
+                break;
+            case "threads":
+                int n = Integer.parseInt(value.trim());
+                if (n < 1) {
+                    throw new IllegalArgumentException("threads must be at least 1: " + value);
+                }
+                threads = n;
+                break;
+            case "stopOn":
+                String[] names = value.split(",");
+                ResultColumn[] columns = new ResultColumn[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    columns[i] = ResultColumn.fromName(names[i]);
+                    if (columns[i] == null || !isMetric(columns[i])) {
+                        throw new IllegalArgumentException("Not a metric: " + names[i]);
+                    }
+                }
+                stopOn = columns;
+                break;
+            default:
+                return false;
+        }
+        return true;
+    }
+
+    void setPrecision(double precision) {
+        if (!(precision > 0)) {
+            throw new IllegalArgumentException("precision must be positive: " + precision);
+        }
+        this.precision = precision;
+    }
+
+    void setConfidence(double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("confidence must be within (0, 1): " + confidence);
+        }
+        this.confidence = confidence;
+    }
+
+    void setReplicationRange(int minReplications, int maxReplications) {
+        if (minReplications < 2 || maxReplications < minReplications) {
+            throw new IllegalArgumentException("Need 2 <= minReplications <= maxReplications: "
+                    + minReplications + ", " + maxReplications);
+        }
+        this.minReplications = minReplications;
+        this.maxReplications = maxReplications;
+    }
+
+    void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    void setStore(ResultsStore store) {
+        this.store = store;
+    }
+
+    SimulationConfig getBaseConfig() {
+        return baseConfig;
+    }
+
+    /**
+     * Runs replications until the stopping rule is met.
+     */
+    ReplicationSummary run() {
+        ReplicationSummary summary = new ReplicationSummary(baseConfig, confidence);
+        SplittableRandom seeds = new SplittableRandom(baseConfig.getSeed());
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            int replication = 0;
+            while (replication < maxReplications) {
+                List<Callable<SimulationResult>> wave = new ArrayList<>();
+                for (int i = 0; i < threads && replication + i < maxReplications; i++) {
+                    SimulationConfig c = baseConfig.copy();
+                    c.setReplication(replication + i);
+                    c.setSeed(seeds.nextLong());
+                    wave.add(() -> new Simulation(c).run());
+                }
+                replication += wave.size();
+
+                for (SimulationResult r : runWave(pool, wave)) {
+                    summary.add(r);
+                    if (store != null) {
+                        store.append(r);
+                    }
+                    if (summary.getReplications() >= minReplications && isPreciseEnough(summary)) {
+                        summary.setConverged(true);
+                        return summary;
+                    }
+                }
+            }
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static List<SimulationResult> runWave(ForkJoinPool pool, List<Callable<SimulationResult>> wave) {
+        List<SimulationResult> results = new ArrayList<>(wave.size());
+        try {
+            if (pool == null) {
+                for (Callable<SimulationResult> c : wave) {
+                    results.add(c.call());
+                }
+            } else {
+                for (Future<SimulationResult> f : pool.invokeAll(wave)) {
+                    results.add(f.get());
+                }
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new IllegalStateException(e.getCause());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Replication interrupted", e);
+        }
+        return results;
+    }
+
+    private boolean isPreciseEnough(ReplicationSummary summary) {
+        for (ResultColumn metric : stopOn) {
+            if (summary.getHalfWidth(metric) > precision * Math.abs(summary.getMean(metric))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isMetric(ResultColumn column) {
+        for (ResultColumn m : METRICS) {
+            if (m == column) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
+
+/**
+ * @author Jack Shendrikov
+ *
+ * The replications of one config run by a `ReplicationRunner`: the mean, standard deviation and confidence interval
+ * half-width of every metric, kept in constant memory however many replications there are.
+ */
+final class ReplicationSummary {
+    private final SimulationConfig config;
+    private final double confidence;
+    private final RunningStatistic[] statistics = new RunningStatistic[ReplicationRunner.METRICS.length];
+    private boolean converged;
+
+    ReplicationSummary(SimulationConfig config, double confidence) {
+        this.config = config;
+        this.confidence = confidence;
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i] = new RunningStatistic();
+        }
+    }
+
+    void add(SimulationResult r) {
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i].add(ReplicationRunner.METRICS[i].doubleValueOf(r));
+        }
+    }
+
+    SimulationConfig getConfig() {
+        return config;
+    }
+
+    double getConfidence() {
+        return confidence;
+    }
+
+    int getReplications() {
+        return (int) statistics[0].getCount();
+    }
+
+    /**
+     * @return true if the stopping rule was met, false if the run gave up after the maximum number of replications
+     */
+    boolean isConverged() {
+        return converged;
+    }
+
+    void setConverged(boolean converged) {
+        this.converged = converged;
+    }
+
+    double getMean(ResultColumn metric) {
+        return statistic(metric).getMean();
+    }
+
+    /**
+     * @return the half-width of the confidence interval of the mean, or NaN with fewer than two replications
+     */
+    double getHalfWidth(ResultColumn metric) {
+        RunningStatistic s = statistic(metric);
+        if (s.getCount() < 2) {
+            return Double.NaN;
+        }
+        double t = StudentT.quantile(0.5 + 0.5 * confidence, s.getCount() - 1);
+        return t * s.getStandardDeviation() / Math.sqrt(s.getCount());
+    }
+
+    private RunningStatistic statistic(ResultColumn metric) {
+        for (int i = 0; i < ReplicationRunner.METRICS.length; i++) {
+            if (ReplicationRunner.METRICS[i] == metric) {
+                return statistics[i];
+            }
+        }
+        throw new IllegalArgumentException("Not a metric: " + metric);
+    }
+}
@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Reads a `ResultsStore` file back as CSV, for plotting. Run as
+ * `java -jar ShenSchedule.jar results <file> [<column> ...] [<column>=<value> ...]`: the named columns are printed
+ * in the given order (all of them if none are named), and only the rows whose columns equal the given values, e.g.
+ * `results results.col lambda avg_turnaround scheduler=2 quantum=0.01`.
+ *
+ * Only the blocks of the columns that are printed or filtered on are read from each batch; the others are skipped.
+ * The column names and types are taken from the header of the file itself.
+ */
+
+final class ResultsReader {
+    private final FileChannel channel;
+    private final String[] names;
+    private final boolean[] integral;
+    private final long dataStart;
+
+    private ResultsReader(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        ByteBuffer fixed = read(0, ResultsStore.MAGIC.length + 2 * Integer.BYTES);
+        byte[] magic = new byte[ResultsStore.MAGIC.length];
+        fixed.get(magic);
+        if (!Arrays.equals(magic, ResultsStore.MAGIC) || fixed.getInt() != ResultsStore.VERSION) {
+            channel.close();
+            throw new IOException(path + " is not a results file of this version");
+        }
+        int columns = fixed.getInt();
+        names = new String[columns];
+        integral = new boolean[columns];
+        long at = fixed.capacity();
+        for (int c = 0; c < columns; c++) {
+            int length = read(at, Short.BYTES).getShort();
+            ByteBuffer name = read(at + Short.BYTES, length + 1);
+            byte[] bytes = new byte[length];
+            name.get(bytes);
+            names[c] = new String(bytes, StandardCharsets.US_ASCII);
+            integral[c] = name.get() == 1;
+            at += Short.BYTES + length + 1;
+        }
+        dataStart = at;
+    }
+
+    /**
+     * Runs the reader with the command line arguments that follow `results`.
+     */
+    static void run(String[] args, PrintStream out) throws IOException {
+        ResultsReader reader = new ResultsReader(args[0]);
+        try {
+            List<Integer> selected = new ArrayList<>();
+            List<Integer> filtered = new ArrayList<>();
+            List<String> filterValues = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                int eq = args[i].indexOf('=');
+                if (eq < 0) {
+                    selected.add(reader.columnIndex(args[i]));
+                } else {
+                    filtered.add(reader.columnIndex(args[i].substring(0, eq)));
+                    filterValues.add(args[i].substring(eq + 1).trim());
+                }
+            }
+            if (selected.isEmpty()) {
+                for (int c = 0; c < reader.names.length; c++) {
+                    selected.add(c);
+                }
+            }
+            reader.print(selected, filtered, filterValues, out);
+        } finally {
+            reader.channel.close();
+        }
+    }
+
+    private int columnIndex(String name) {
+        for (int c = 0; c < names.length; c++) {
+            if (names[c].equalsIgnoreCase(name.trim())) {
+                return c;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column: " + name + " (expected one of " + Arrays.toString(names) + ")");
+    }
+
+    private void print(List<Integer> selected, List<Integer> filtered, List<String> filterValues, PrintStream out)
+            throws IOException {
+        // filter values are compared in the encoding of their column, so that 10 matches a lambda of 10.0
+        long[] wanted = new long[filtered.size()];
+        for (int f = 0; f < wanted.length; f++) {
+            int c = filtered.get(f);
+            wanted[f] = integral[c] ? Long.parseLong(filterValues.get(f))
+                    : Double.doubleToRawLongBits(Double.parseDouble(filterValues.get(f)));
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int c : selected) {
+            sb.append(sb.length() == 0 ? "" : ",").append(names[c]);
+        }
+        out.println(sb);
+
+        long size = channel.size();
+        long at = dataStart;
+        long[][] blocks = new long[names.length][];
+        while (at + Long.BYTES <= size) {
+            int rows = (int) read(at, Long.BYTES).getLong();
+            long batchBytes = Long.BYTES * (1 + (long) names.length * rows);
+            if (rows <= 0 || at + batchBytes > size) {
+                break;      // a batch still being written by another process
+            }
+            for (int c : selected) {
+                blocks[c] = readColumn(at, c, rows);
+            }
+            for (int c : filtered) {
+                blocks[c] = readColumn(at, c, rows);
+            }
+            for (int i = 0; i < rows; i++) {
+                if (matches(blocks, filtered, wanted, i)) {
+                    sb.setLength(0);
+                    for (int c : selected) {
+                        sb.append(sb.length() == 0 ? "" : ",").append(format(c, blocks[c][i]));
+                    }
+                    out.println(sb);
+                }
+            }
+            at += batchBytes;
+        }
+    }
+
+    private static boolean matches(long[][] blocks, List<Integer> filtered, long[] wanted, int row) {
+        for (int f = 0; f < wanted.length; f++) {
+            if (blocks[filtered.get(f)][row] != wanted[f]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String format(int column, long value) {
+        if (names[column].equals(ResultColumn.SCHEDULER.toString())) {
+            SchedulerType t = SchedulerType.fromSchedulerType((int) value);
+            return t != null ? t.toString() : String.valueOf(value);
+        }
+        if (names[column].equals(ResultColumn.STOP_TYPE.toString()) && value >= 0
+                && value < StopConditionType.values().length) {
+            return StopConditionType.values()[(int) value].toString();
+        }
+        return integral[column] ? String.valueOf(value) : String.valueOf(Double.longBitsToDouble(value));
+    }
+
+    /**
+     * @return the values of `column` in the batch starting at `batchStart`, read in one block
+     */
+    private long[] readColumn(long batchStart, int column, int rows) throws IOException {
+        long[] values = new long[rows];
+        read(batchStart + Long.BYTES * (1 + (long) column * rows), rows * Long.BYTES).asLongBuffer().get(values);
+        return values;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (b.hasRemaining()) {
+            int n = channel.read(b, position + b.position());
+            if (n < 0) {
+                throw new IOException("Unexpected end of the results file");
+            }
+        }
+        b.flip();
+        return b;
+    }
+}
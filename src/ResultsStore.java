@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * A column of the `ResultsStore`: the config of a run and every metric it produced. Each value takes 8 bytes, a
+ * long or the bits of a double.
+ */
+
+enum ResultColumn {
+    SCHEDULER("scheduler", true), LAMBDA("lambda", false), AVG_SERVICE_TIME("avg_service_time", false),
+    QUANTUM("quantum", false), SEED("seed", true), REPLICATION("replication", true), CORES("cores", true),
+    STOP_TYPE("stop_type", true), STOP_LIMIT("stop_limit", false),
+    TOTAL_SIM_TIME("total_sim_time", false), COMPLETIONS("completions", true),
+    AVG_TURNAROUND("avg_turnaround", false), THROUGHPUT("throughput", false),
+    CPU_UTILIZATION("cpu_utilization", false), AVG_READY_QUEUE("avg_ready_queue", false),
+    AVG_WAITING("avg_waiting", false), AVG_SYSTEM("avg_system", false), MAX_READY_QUEUE("max_ready_queue", true),
+    TURNAROUND_STD_DEV("turnaround_std_dev", false), WAITING_STD_DEV("waiting_std_dev", false),
+    TURNAROUND_P50("turnaround_p50", false), TURNAROUND_P99("turnaround_p99", false),
+    TURNAROUND_P999("turnaround_p99.9", false), WAITING_P50("waiting_p50", false),
+    WAITING_P99("waiting_p99", false), WAITING_P999("waiting_p99.9", false), RESPONSE_P50("response_p50", false),
+    RESPONSE_P99("response_p99", false), RESPONSE_P999("response_p99.9", false),
+    MIGRATIONS("migrations", true), SHARE_RATIO("share_ratio", false), SHARE_ERROR("share_error", false),
+    WARMUP_END("warmup_end", false), WARMUP_COMPLETIONS("warmup_completions", true),
+    TRUNCATION_TIME("truncation_time", false), REJECTED("rejected", true), DROPPED("dropped", true);
+
+    private final String name;
+    private final boolean integral;
+
+    ResultColumn(String name, boolean integral) {
+        this.name = name;
+        this.integral = integral;
+    }
+
+    /**
+     * @return true if the values are longs, false if they are doubles
+     */
+    boolean isIntegral() {
+        return integral;
+    }
+
+    /**
+     * @return the value of this column for `r`, a double as its raw bits
+     */
+    long valueOf(SimulationResult r) {
+        SimulationConfig c = r.getConfig();
+        switch (this) {
+            case SCHEDULER: return c.getSchedulerType().getSchedulerType();
+            case LAMBDA: return bits(c.getLambda());
+            case AVG_SERVICE_TIME: return bits(c.getAvgServiceTime());
+            case QUANTUM: return bits(c.getQuantumForRR());
+            case SEED: return c.getSeed();
+            case REPLICATION: return c.getReplication();
+            case CORES: return r.getCores();
+            case STOP_TYPE: return c.getStopCondition().getType().ordinal();
+            case STOP_LIMIT: return bits(c.getStopCondition().getLimit());
+            case TOTAL_SIM_TIME: return bits(r.getTotalSimTime());
+            case COMPLETIONS: return r.getCompletions();
+            case AVG_TURNAROUND: return bits(r.getAvgTurnaroundTime());
+            case THROUGHPUT: return bits(r.getThroughput());
+            case CPU_UTILIZATION: return bits(r.getCpuUtilization());
+            case AVG_READY_QUEUE: return bits(r.getAvgProcessesInReadyQueue());
+            case AVG_WAITING: return bits(r.getAvgWaitingTime());
+            case AVG_SYSTEM: return bits(r.getAvgProcessesInSystem());
+            case MAX_READY_QUEUE: return r.getMaxProcessesInReadyQueue();
+            case TURNAROUND_STD_DEV: return bits(r.getTurnaroundTimeStdDev());
+            case WAITING_STD_DEV: return bits(r.getWaitingTimeStdDev());
+            case TURNAROUND_P50: return bits(r.getTurnaroundPercentile(50));
+            case TURNAROUND_P99: return bits(r.getTurnaroundPercentile(99));
+            case TURNAROUND_P999: return bits(r.getTurnaroundPercentile(99.9));
+            case WAITING_P50: return bits(r.getWaitingPercentile(50));
+            case WAITING_P99: return bits(r.getWaitingPercentile(99));
+            case WAITING_P999: return bits(r.getWaitingPercentile(99.9));
+            case RESPONSE_P50: return bits(r.getResponsePercentile(50));
+            case RESPONSE_P99: return bits(r.getResponsePercentile(99));
+            case RESPONSE_P999: return bits(r.getResponsePercentile(99.9));
+            case MIGRATIONS: return r.getMigrations();
+            case SHARE_RATIO: return bits(r.getShareRatio());
+            case SHARE_ERROR: return bits(r.getShareError());
+            case WARMUP_END: return bits(r.getWarmupEnd());
+            case WARMUP_COMPLETIONS: return r.getWarmupCompletions();
+            case TRUNCATION_TIME: return bits(r.getTruncationTime());
+            case REJECTED: return r.getRejected();
+            case DROPPED: return r.getDropped();
+            default: throw new AssertionError(this);
+        }
+    }
+
+    /**
+     * @return the value of this column for `r` as a number
+     */
+    double doubleValueOf(SimulationResult r) {
+        long value = valueOf(r);
+        return integral ? value : Double.longBitsToDouble(value);
+    }
+
+    static ResultColumn fromName(String name) {
+        for (ResultColumn c : values()) {
+            if (c.name.equalsIgnoreCase(name.trim())) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    private static long bits(double d) {
+        return Double.doubleToRawLongBits(d);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
+
+/**
+ * @author Jack Shendrikov
+ *
+ * Collects the results of runs and appends them to a columnar file, replacing the per-run append to `test.csv`.
+ * Rows are staged in memory, one array per column, and written in batches of up to `BATCH_ROWS` rows. The file
+ * starts with a header - the magic `SCHEDRES`, the format version, the number of columns and the name and type
+ * (1 for long, 0 for double) of each - and is followed by the batches. A batch is its row count, as a long, and
+ * then the values of each column in turn, so a reader scanning one column reads one contiguous block per batch and
+ * skips the others. All values are 8-byte little-endian.
+ *
+ * Appends are safe from many threads (they are synchronized) and from many processes: a batch is written at the
+ * end of the file under an exclusive `FileLock`, in a single write, so concurrent runs never interleave rows. A
+ * store must be closed to write the last, partly filled batch.
+ */
+final class ResultsStore implements AutoCloseable {
+    static final String DEFAULT_PATH = "results.col";
+    static final byte[] MAGIC = {'S', 'C', 'H', 'E', 'D', 'R', 'E', 'S'};
+    static final int VERSION = 1;
+    static final int BATCH_ROWS = 256;
+    private static final ResultColumn[] COLUMNS = ResultColumn.values();
+
+    private final String path;
+    private final FileChannel channel;
+    private final long[][] staged = new long[COLUMNS.length][BATCH_ROWS];
+    private int rows;
+
+    ResultsStore(String path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Stages the row of `r`, and writes the batch once it is full.
+     */
+    synchronized void append(SimulationResult r) throws IOException {
+        for (int c = 0; c < COLUMNS.length; c++) {
+            staged[c][rows] = COLUMNS[c].valueOf(r);
+        }
+        if (++rows == BATCH_ROWS) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the staged rows, if any, at the end of the file. The header is written first if the file is new.
+     */
+    synchronized void flush() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        ByteBuffer batch = ByteBuffer.allocate(Long.BYTES * (1 + COLUMNS.length * rows)).order(ByteOrder.LITTLE_ENDIAN);
+        batch.putLong(rows);
+        for (long[] column : staged) {
+            for (int i = 0; i < rows; i++) {
+                batch.putLong(column[i]);
+            }
+        }
+        batch.flip();
+
+        FileLock lock = channel.lock();
+        try {
+            long end = channel.size();
+            if (end == 0) {
+                writeFully(header(), 0);
+                end = channel.size();
+            } else {
+                checkHeader();
+            }
+            writeFully(batch, end);
+        } finally {
+            lock.release();
+        }
+        rows = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static ByteBuffer header() {
+        int size = MAGIC.length + 2 * Integer.BYTES;
+        for (ResultColumn c : COLUMNS) {
+            size += Short.BYTES + c.toString().length() + 1;
+        }
+        ByteBuffer b = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        b.put(MAGIC).putInt(VERSION).putInt(COLUMNS.length);
+        for (ResultColumn c : COLUMNS) {
+            byte[] name = c.toString().getBytes(StandardCharsets.US_ASCII);
+            b.putShort((short) name.length).put(name).put((byte) (c.isIntegral() ? 1 : 0));
+        }
+        b.flip();
+        return b;
+    }
+
+    /**
+     * Appending rows of a different layout would make the file unreadable, so the columns must match exactly.
+     */
+    private void checkHeader() throws IOException {
+        ByteBuffer expected = header();
+        ByteBuffer actual = ByteBuffer.allocate(expected.remaining());
+        long at = 0;
+        while (actual.hasRemaining()) {
+            int n = channel.read(actual, at);
+            if (n < 0) {
+                break;
+            }
+            at += n;
+        }
+        actual.flip();
+        if (!actual.equals(expected)) {
+            throw new IOException(path + " is not a results file with the columns of this version");
+        }
+    }
+
+    private void writeFully(ByteBuffer b, long position) throws IOException {
+        while (b.hasRemaining()) {
+            position += channel.write(b, position);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * Streaming statistics of a series of observations in constant memory: the count, a compensated sum and the mean
+ * and variance by Welford's method, which updates them one observation at a time without the cancellation of the
+ * textbook sum-of-squares formula.
+ */
+
+final class RunningStatistic {
+    private long count;
+    private final CompensatedSum sum = new CompensatedSum();
+    private double mean;
+    private double m2;    // sum of squared differences from the current mean
+
+    void add(double value) {
+        count++;
+        sum.add(value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getSum() {
+        return sum.getSum();
+    }
+
+    double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the sample variance, or 0 with fewer than two observations
+     */
+    double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    void reset() {
+        count = 0;
+        sum.reset();
+        mean = 0;
+        m2 = 0;
+    }
+}
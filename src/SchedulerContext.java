@@ -0,0 +1,31 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * What a scheduler sees of the `Simulation` it runs in: the event queue to schedule its completions and time
+ * slices on, the CPU, the process table, and a way to report that a process has completed.
+ */
+
+interface SchedulerContext {
+
+    EventQueue getEventQueue();
+
+    CPU getCpu();
+
+    ProcessTable getProcessTable();
+
+    /**
+     * @return the log to record what happens to the processes in, or null if the run keeps none
+     */
+    EventLog getEventLog();
+
+    /**
+     * @return the simulated time at which the run stops, or positive infinity if it stops on something else
+     */
+    double getStopTime();
+
+    /**
+     * Counts `p` as completed at the current time, records its statistics and frees its table slot. The handle
+     * must not be used afterwards.
+     */
+    void completeProcess(int p);
+}
@@ -0,0 +1,44 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * The callbacks through which a `Simulation` hands its events to a scheduler. The engine only advances the clock,
+ * creates arriving processes and calls exactly one hook per event; everything else - whether an arrival preempts
+ * the running process, when the running process will complete or its quantum run out, and which process runs
+ * next - is decided by the scheduler. A new policy is added by implementing these hooks, without touching the
+ * event loop, and each run only ever calls one implementation of each hook.
+ *
+ * The payload of a completion or time slice is the int the scheduler inserted the event with (a process handle on
+ * a single CPU, a core number on several).
+ */
+
+interface SchedulerHooks {
+
+    // schedules the scheduler's own periodic events, e.g. the MLFQ priority boost; called once before the first event
+    void onStart();
+
+    void onArrival(int p, double now);
+
+    void onCompletion(int payload, double now);
+
+    void onTimeSlice(int payload, double now);
+
+    // any other event the scheduler inserted itself, e.g. `PriorityBoost` or `LoadBalance`
+    void onTimer(EventType type, double now);
+
+    /**
+     * Takes `p` out of the ready queue it waits in, for admission control to drop it. Only called for schedulers
+     * that `supportDropOldest`.
+     * @return false if `p` is not waiting, e.g. because it is on a CPU
+     */
+    boolean removeQueuedProcess(int p);
+
+    /**
+     * @return true if `p` is on a CPU rather than waiting in a ready queue
+     */
+    boolean isRunning(int p);
+
+    // the state of the run for the time-weighted statistics
+    double getBusyFraction();
+
+    int getQueuedProcesses();
+}
@@ -4,7 +4,7 @@
  */
 
 enum SchedulerType {
-    PSJF(1), RR(2);
+    PSJF(1), RR(2), CFS(3), MLFQ(4), LOTTERY(5), STRIDE(6);
 
     private final int schedulerType;
 
@@ -15,47 +15,218 @@ enum SchedulerType {
     public int getSchedulerType() {
         return schedulerType;
     }
+
+    /**
+     * @return true if the scheduler runs processes for a fixed quantum (the 4th command line argument)
+     */
+    boolean usesQuantum() {
+        return this == RR || this == MLFQ || isProportionalShare();
+    }
+
+    /**
+     * @return true if the scheduler is a `TimeSlicedScheduler`, with `TimeSliceOccurrence` events
+     */
+    boolean isTimeSliced() {
+        return this == RR || this == MLFQ || isProportionalShare();
+    }
+
+    /**
+     * @return true if processes hold tickets and get a share of the CPU proportional to them
+     */
+    boolean isProportionalShare() {
+        return this == LOTTERY || this == STRIDE;
+    }
+
+    /**
+     * @return true if the `MultiCoreEngine` can run the scheduler on several cores
+     */
+    boolean supportsMultiCore() {
+        return this == PSJF || this == RR;
+    }
+
+    /**
+     * @return true if a waiting process can be taken out of the ready queue, as `admission=dropOldest` needs
+     */
+    boolean supportsDropOldest() {
+        return this == PSJF || this == RR;
+    }
+
+    /**
+     * @return the scheduler with the given command line value, or null if it is out of range
+     */
+    static SchedulerType fromSchedulerType(int schedulerType) {
+        for (SchedulerType t : values()) {
+            if (t.schedulerType == schedulerType) {
+                return t;
+            }
+        }
+        return null;
+    }
 }
 
 /**
  * @author Jack Shendrikov
  * Main class definition for what constitutes a scheduling algorithm.
  * Abstract definition of both properties and behavior that all schedulers share.
+ * Every scheduler handles the events of its simulation itself, through the `SchedulerHooks`.
  */
-public abstract class SchedulingAlgorithm implements PerformanceMetrics {
+public abstract class SchedulingAlgorithm implements PerformanceMetrics, SchedulerHooks {
 
     private SchedulerType schedulerType;
+    final ProcessTable processTable;
     ProcessReadyQueue myQueue;
 
-    static double runningTurnaroundSum = 0;
-    static double runningBurstTimeSum = 0;
-    static double runningWaitTimeSum = 0;
+    // the simulation the scheduler runs in, set by `attach`
+    SchedulerContext context;
+    EventQueue eventQueue;
+    CPU cpu;
+    EventLog eventLog;          // null unless the run keeps an event log
 
-    // default constructor to be overwritten by specialization classes PSJF, RR
-    SchedulingAlgorithm() {}
+    // statistics belong to the scheduler instance, so every simulation accumulates its own. They take constant
+    // memory and stay accurate however many processes the run handles.
+    final RunningStatistic turnaroundTimes = new RunningStatistic();
+    final RunningStatistic waitingTimes = new RunningStatistic();
+    long completions = 0;   // processes that ran to completion (the PSJF curve toggle adds samples, not completions)
+    double statisticsStart = 0;     // the statistics cover [statisticsStart, end of the run]; later than 0 after a warm-up
+
+    // distributions of the completed processes only, for tail latencies
+    final LatencyHistogram turnaroundHistogram = new LatencyHistogram();
+    final LatencyHistogram waitingHistogram = new LatencyHistogram();
+    final LatencyHistogram responseHistogram = new LatencyHistogram();   // arrival until first time on the CPU
+
+    // exact time-weighted integrals of the state of the system, updated before every event
+    final TimeWeightedStatistic readyQueueLength = new TimeWeightedStatistic();
+    final TimeWeightedStatistic processesInSystem = new TimeWeightedStatistic();
+    final TimeWeightedStatistic cpuBusy = new TimeWeightedStatistic();
+
+    // constructor to be called by the specialization classes PSJF, RR, ...
+    SchedulingAlgorithm(ProcessTable processTable) {
+        this.processTable = processTable;
+    }
+
+    /**
+     * Lets the scheduler handle the events of the simulation behind `context`, on its single CPU. Not called when
+     * the `MultiCoreEngine` runs the simulation; the scheduler then only keeps the statistics.
+     */
+    void attach(SchedulerContext context) {
+        this.context = context;
+        this.eventQueue = context.getEventQueue();
+        this.cpu = context.getCpu();
+        this.eventLog = context.getEventLog();
+    }
+
+    // hooks that not every scheduler needs
+    @Override
+    public void onStart() {}
+
+    @Override
+    public void onTimeSlice(int p, double now) {}
+
+    @Override
+    public void onTimer(EventType type, double now) {}
+
+    @Override
+    public double getBusyFraction() {
+        return cpu.isBusy() ? 1 : 0;
+    }
+
+    @Override
+    public int getQueuedProcesses() {
+        return readyQueueSize();
+    }
+
+    @Override
+    public boolean removeQueuedProcess(int p) {
+        return myQueue.removeProcess(p);
+    }
+
+    @Override
+    public boolean isRunning(int p) {
+        return cpu.getMyProcess() == p;
+    }
 
     // implement methods from interface as required
     @Override
     public double avgTurnaroundTime(double totalSimTime) {
-      return runningTurnaroundSum / 10000;
+      return turnaroundTimes.getSum() / completions;
     }
     @Override
     public double throughput(double totalSimTime) {
-      return 10000 / totalSimTime;
+      return completions / (totalSimTime - statisticsStart);
     }
     @Override
     public double cpuUtilization(double totalSimTime) {
-      return runningBurstTimeSum / totalSimTime;
+      return cpuBusy.getAverage(totalSimTime);
+    }
+    @Override
+    public double avgProcessesInReadyQueue(double totalSimTime) {
+      return readyQueueLength.getAverage(totalSimTime);
     }
     @Override
-    public double avgProcessesInReadyQueue(int lambda) {
-      return lambda * (runningWaitTimeSum / 10000);
+    public double avgProcessesInSystem(double totalSimTime) {
+        return processesInSystem.getAverage(totalSimTime);
+    }
+    @Override
+    public double maxProcessesInReadyQueue() {
+        return readyQueueLength.getMax();
     }
     @Override
     public double avgWaitingTime(double totalSimTime) {
-        return runningWaitTimeSum / 10000;
+        return waitingTimes.getSum() / completions;
+    }
+    @Override
+    public double turnaroundTimePercentile(double percentile) {
+        return turnaroundHistogram.getValueAtPercentile(percentile);
+    }
+    @Override
+    public double waitingTimePercentile(double percentile) {
+        return waitingHistogram.getValueAtPercentile(percentile);
+    }
+    @Override
+    public double responseTimePercentile(double percentile) {
+        return responseHistogram.getValueAtPercentile(percentile);
     }
 
+    /**
+     * Updates the statistics with a process that has just completed.
+     */
+    void recordCompletion(double turnaroundTime, double waitingTime, double responseTime) {
+        completions++;
+        turnaroundTimes.add(turnaroundTime);
+        waitingTimes.add(waitingTime);
+        turnaroundHistogram.record(turnaroundTime);
+        waitingHistogram.record(waitingTime);
+        responseHistogram.record(responseTime);
+    }
+
+
+    /**
+     * Adds the state the system was in since the previous event to the time-weighted integrals. Called with the
+     * time of each event before the event changes that state. `busyFraction` is the fraction of the cores that
+     * are busy - 0 or 1 with a single CPU.
+     */
+    void recordStateUntil(double now, double busyFraction, int queuedProcesses, int liveProcesses) {
+        readyQueueLength.record(now, queuedProcesses);
+        processesInSystem.record(now, liveProcesses);
+        cpuBusy.record(now, busyFraction);
+    }
+
+    /**
+     * Discards everything the statistics hold, when the warm-up period is over, so that they only cover the run
+     * from `now` on. Schedulers with statistics of their own reset them too.
+     */
+    void resetStatistics(double now) {
+        statisticsStart = now;
+        completions = 0;
+        turnaroundTimes.reset();
+        waitingTimes.reset();
+        turnaroundHistogram.reset();
+        waitingHistogram.reset();
+        responseHistogram.reset();
+        readyQueueLength.reset(now);
+        processesInSystem.reset(now);
+        cpuBusy.reset(now);
+    }
 
     SchedulerType getSchedulerType() {
         return schedulerType;
@@ -65,14 +236,51 @@ public abstract class SchedulingAlgorithm implements PerformanceMetrics {
         this.schedulerType = schedulerType;
     }
 
-    Process getNextProcessForCPU() {
+    int getNextProcessForCPU() {
         return myQueue.returnAndRemoveHeadProcess();
     }
 
-    Process safelyPeekAtNextProcess() { return myQueue.peek(); }
+    int safelyPeekAtNextProcess() { return myQueue.peek(); }
 
-    void addProcessToReadyQueue(Process p) {
+    void addProcessToReadyQueue(int p) {
         myQueue.insertProcess(p);
     }
 
+    boolean isReadyQueueEmpty() {
+        return myQueue.isEmpty();
+    }
+
+    int readyQueueSize() {
+        return myQueue.size();
+    }
+
+    /**
+     * @return how long `p` may run before a `TimeSliceOccurrence` - unbounded unless the scheduler is time sliced
+     */
+    double getQuantum(int p) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    // hooks for schedulers that keep state per process; the scheduler is told before `p` is queued again
+    void onQuantumExpired(int p) {}
+
+    void onProcessCompleted(int p, double ranFor) {}
+
+    /**
+     * Used by multiple schedulers as a generic check to determine if a process is new or returning and set
+     * certain parameters accordingly. If a process is new, we set the start time, otherwise we do not so we do
+     * not override it. Every scheduler calls it when it puts `p` on the CPU, so it also logs the dispatch.
+     */
+    void checkIfReturningAndSetTimes(int p, double now) {
+        if (eventLog != null) {
+            eventLog.record(LogRecordType.DISPATCH, now, p, 0);
+        }
+        if (!processTable.isReturning(p)) {
+            processTable.setStartTime(p, now);
+            processTable.setRestartTime(p, processTable.getStartTime(p));
+            processTable.setIsReturning(p, true);
+        } else {
+            processTable.setRestartTime(p, now);
+        }
+    }
 }
@@ -0,0 +1,456 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * A single, self-contained run of the discrete event simulator. Every piece of state the run needs - the clock,
+ * the event queue, the scheduler with its process ready queue, the CPU and the accumulators used for statistics -
+ * belongs to this object, so any number of simulations can be created in the same JVM and run one after another
+ * or on different threads without interfering with each other.
+ *
+ * The main while-loop in `run()` continues processing events until the config's `StopCondition` is reached - by
+ * default when 10,000 processes complete. In so doing, it does not stop or prevent the generation of new process
+ * arrivals - this is necessary for an accurate simulation with valid statistical results. All counters are `long`
+ * and the statistics take constant memory, so a run may go on for billions of completions. With `warmup=mser5` a
+ * `WarmupDetector` watches the turnaround times, and the statistics are reset once the warm-up is found to be over. The processes come from
+ * an `ArrivalSource`, one arrival ahead; when a replayed trace runs out, the run ends once its last process completes.
+ *
+ * We have three main types of events - `ProcessArrival`, `ProcessCompletion`, and `TimeSliceOccurrence`. The latter is only
+ * used by the time-sliced schedulers. I decided against having a fourth, separate event for a PSJF preemption.
+ * As this occurs at the simulation time when it is detected, I handle it then and there.
+ *
+ * The simulation itself only advances the clock and creates the arriving processes. Each event goes to one of the
+ * `SchedulerHooks` of the scheduler (or of the `MultiCoreEngine` on several cores), which decides what runs next
+ * and schedules the completions and time slices; in return the scheduler reports completed processes through the
+ * `SchedulerContext` this class implements.
+ ***/
+
+class Simulation implements SchedulerContext {
+
+    private final SimulationConfig config;
+
+    private final Clock simulationClock;
+    private final EventQueue eventQueue;
+    private final SchedulingAlgorithm schedulingAlgorithm;
+    private final CPU simulationCPU;
+    private final MultiCoreEngine multiCore;  // null when the run has a single CPU
+    private final SchedulerHooks scheduler;   // handles the events: the scheduling algorithm or the multi-core engine
+    private final ProcessTable processTable;
+    private final RandomStreams randomStreams;
+    private final ArrivalSource arrivals;
+    private final EventLog eventLog;          // null unless the config asks for one
+    private final WarmupDetector warmup;      // null unless the config asks to truncate the warm-up
+    private final AdmissionControl admission;
+    private final SimulationMonitor monitor;  // null unless the config asks for JMX
+
+    private final SchedulerType algorithmType;
+    private final double quantumForRR;
+    private final StopCondition stopCondition;
+
+    private boolean started = false;
+    private long numProcessesHandled = 0;
+    private long eventsProcessed = 0;
+    private long arrivalEvents = 0;
+    private long completionEvents = 0;
+    private long timeSliceEvents = 0;
+    private int maxEventQueueDepth = 0;
+    private long wallClockDeadline;           // System.nanoTime() at which a wall-clock budget runs out
+    private boolean arrivalsExhausted;        // a trace has no more arrivals
+    private double warmupEnd;                 // the statistics were reset then, or 0
+    private long warmupCompletions;           // completions discarded with the warm-up
+
+    Simulation(SimulationConfig config) {
+        this.config = config.copy();
+        algorithmType = this.config.getSchedulerType();
+        quantumForRR = this.config.getQuantumForRR();
+        stopCondition = this.config.getStopCondition();
+
+        // initialize simulation clock to 0
+        simulationClock = new Clock();
+        simulationClock.setSimulationTime(0f);
+
+        eventQueue = EventQueue.createEventQueue(this.config.getEventQueueType());
+
+        // every random number of the run comes from the config's seed
+        randomStreams = new RandomStreams(this.config.getSeed());
+
+        // processes come from a trace if one is given, otherwise from a Poisson process with exponential bursts
+        if (this.config.getTracePath() != null) {
+            try {
+                arrivals = TraceArrivals.open(this.config.getTracePath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            arrivals = new PoissonArrivals(randomStreams, this.config.getLambda(), this.config.getAvgServiceTime());
+        }
+
+        // create the process table, the scheduling algorithm and the CPU to handle processes
+        processTable = new ProcessTable();
+        try {
+            eventLog = this.config.getEventLogPath() != null
+                    ? new EventLog(this.config.getEventLogPath(), processTable) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        warmup = this.config.isDetectWarmup() ? new WarmupDetector() : null;
+        admission = new AdmissionControl(this.config, processTable);
+        if (admission.getPolicy() == AdmissionPolicy.DROP_OLDEST && !algorithmType.supportsDropOldest()) {
+            throw new IllegalArgumentException("The " + algorithmType + " scheduler cannot drop waiting processes");
+        }
+        schedulingAlgorithm = createSchedulingAlgorithm(this.config, processTable, randomStreams);
+        simulationCPU = new CPU();
+        if (this.config.getCores() > 1 && !algorithmType.supportsMultiCore()) {
+            throw new IllegalArgumentException("The " + algorithmType + " scheduler only runs on a single core");
+        }
+        if (this.config.getCores() > 1) {
+            multiCore = new MultiCoreEngine(this.config.getCores(), algorithmType, quantumForRR,
+                    this.config.getBalancingPolicy(), this.config.getBalanceInterval(), this);
+            scheduler = multiCore;
+        } else {
+            multiCore = null;
+            schedulingAlgorithm.attach(this);
+            scheduler = schedulingAlgorithm;
+        }
+        monitor = this.config.isJmx() ? new SimulationMonitor(this.config) : null;
+    }
+
+    /**
+     * Runs the simulation until its stop condition is reached and returns the resulting statistics.
+     * A `Simulation` is single use - calling this method a second time is an error.
+     */
+    SimulationResult run() {
+        start();
+
+        /*
+         * I experimented with generating all 10k processes up-front but this caused issues in the distribution
+         * and calculated statistics values. Generating new arrivals as we go is a preferred approach that produces
+         * accurate results.
+         */
+
+        // while we have not reached the stop condition (by default N Processes processed to completion),
+        // keep going and handle events in the `EventQueue` as needed
+        while (!isFinished()) {
+            processNextEvent();
+        }
+
+        return finish();
+    }
+
+    /**
+     * Schedules the first arrival. `run()` calls this itself; it is only needed when driving the simulation one
+     * event at a time with `processNextEvent()`.
+     */
+    void start() {
+        if (started) {
+            throw new IllegalStateException("A simulation can only be run once");
+        }
+        started = true;
+        wallClockDeadline = System.nanoTime() + (long) (stopCondition.getLimit() * 1e9);
+        scheduleArrival(arrivals.firstArrivalTime());
+        scheduler.onStart();
+        if (monitor != null) {
+            publishSnapshot(false);
+            monitor.register();
+        }
+    }
+
+    /**
+     * @return true once the stop condition of the run is reached
+     */
+    boolean isFinished() {
+        if (arrivalsExhausted && processTable.getLiveProcesses() == 0) {
+            return true;    // the whole trace has been replayed
+        }
+        switch (stopCondition.getType()) {
+            case SIMULATED_TIME:
+                return simulationClock.getSimulationTime() >= stopCondition.getLimit();
+            case WALL_CLOCK:
+                // reading the clock costs more than an event, so only look at it every 4096 events
+                return (eventsProcessed & 4095) == 0 && System.nanoTime() - wallClockDeadline >= 0;
+            default:
+                return numProcessesHandled >= stopCondition.getLimit();
+        }
+    }
+
+    /**
+     * Advances the clock to the next event in the `EventQueue`, removes it and handles it.
+     */
+    void processNextEvent() {
+        double eventTime = eventQueue.getSystemTimeFromHead();
+
+        // the state of the system has not changed since the previous event: add it to the time-weighted statistics
+        schedulingAlgorithm.recordStateUntil(eventTime, scheduler.getBusyFraction(), scheduler.getQueuedProcesses(),
+                processTable.getLiveProcesses());
+
+        // Set `Clock` to EventTime
+        simulationClock.setSimulationTime(eventTime);
+
+        int eventQueueDepth = eventQueue.size();
+        if (eventQueueDepth > maxEventQueueDepth) {
+            maxEventQueueDepth = eventQueueDepth;
+        }
+
+        // Do/process next event and remove from `EventQueue`
+        EventType eventToProcessType = eventQueue.returnAndRemoveHeadEvent();
+        eventsProcessed++;
+
+        /* If event is:
+         *   1) an arrival: create a process, schedule the next arrival and hand the process to the scheduler
+         *   2) a completion or the end of a time slice: the scheduler updates its process and picks the next one
+         *   3) any other event was scheduled by the scheduler itself and goes back to it
+         */
+        switch (eventToProcessType) {
+            case ProcessArrival:
+                arrivalEvents++;
+                // routine to create the next arrival event, one arrival ahead
+                scheduleArrival(arrivals.nextArrivalTime(eventTime));
+
+                // the burst is drawn even for an arrival that is turned away, so every admission policy sees the
+                // same processes
+                double burst = arrivals.nextBurstTime();
+                if (!admission.admit(eventTime, scheduler.getQueuedProcesses(), processTable.getLiveProcesses())) {
+                    break;
+                }
+                if (admission.mustDrop(scheduler.getQueuedProcesses())) {
+                    dropProcess(admission.dropOldest(scheduler), eventTime);
+                }
+
+                // create the "arriving" process, processArrivalTime = eventTime
+                int p = processTable.createProcess(eventTime, burst);
+                if (eventLog != null) {
+                    eventLog.record(LogRecordType.ARRIVAL, eventTime, p, -1);
+                }
+                admission.onAdmitted(p);
+                scheduler.onArrival(p, eventTime);
+                break;
+            case ProcessCompletion:
+                completionEvents++;
+                scheduler.onCompletion(eventQueue.getRemovedEventPayload(), eventTime);
+                break;
+            case TimeSliceOccurrence:
+                timeSliceEvents++;
+                scheduler.onTimeSlice(eventQueue.getRemovedEventPayload(), eventTime);
+                break;
+            default:
+                scheduler.onTimer(eventToProcessType, eventTime);
+                break;
+        }
+
+        // the monitor is only brought up to date every 4096 events, so watching a run costs next to nothing
+        if (monitor != null && (eventsProcessed & 4095) == 0) {
+            publishSnapshot(false);
+        }
+    }
+
+    /**
+     * Wraps up the run and returns its statistics.
+     */
+    SimulationResult finish() {
+        arrivals.close();
+        if (eventLog != null) {
+            try {
+                eventLog.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (algorithmType == SchedulerType.PSJF && config.isTogglePSJFCurve()) {
+            numProcessesHandled += schedulingAlgorithm.myQueue.iterateAndGetRemainingDifferenceForPSJF(
+                    schedulingAlgorithm, simulationClock.getSimulationTime());
+        }
+        if (monitor != null) {
+            publishSnapshot(true);
+            monitor.unregister();
+        }
+
+        return collectResult(simulationClock.getSimulationTime());
+    }
+
+    /**
+     * Called by the scheduler once process `p` completes: counts it, computes its final times,
+     * updates the statistics and frees its table slot.
+     */
+    @Override
+    public void completeProcess(int p) {
+        numProcessesHandled++;
+        double completionTime = simulationClock.getSimulationTime();
+        if (eventLog != null) {
+            eventLog.record(LogRecordType.COMPLETION, completionTime, p, multiCore != null ? processTable.getCore(p) : 0);
+        }
+        double turnaroundTime = completionTime - processTable.getArrivalTime(p);
+        double completionMinusStart = completionTime - processTable.getStartTime(p);
+        double waitingTime = (processTable.getStartTime(p) - processTable.getArrivalTime(p))
+                + (completionMinusStart - processTable.getBurstTime(p));
+
+        // now that a process is complete, update the statistics
+        schedulingAlgorithm.recordCompletion(turnaroundTime, waitingTime,
+                processTable.getStartTime(p) - processTable.getArrivalTime(p));
+
+        schedulingAlgorithm.onProcessCompleted(p, completionTime - processTable.getRestartTime(p));
+
+        // the process is done, its slot in the table can be reused by a later arrival
+        processTable.releaseProcess(p);
+
+        // once the warm-up is found to be over, the statistics start over from here
+        if (warmup != null && warmup.add(turnaroundTime, completionTime)) {
+            warmupEnd = completionTime;
+            warmupCompletions = numProcessesHandled;
+            schedulingAlgorithm.resetStatistics(completionTime);
+            if (multiCore != null) {
+                multiCore.resetStatistics(completionTime);
+            }
+            admission.resetStatistics();
+        }
+    }
+
+    /**
+     * Frees the table slot of process `p`, already taken out of the ready queue by admission control, without
+     * counting it as completed.
+     */
+    private void dropProcess(int p, double now) {
+        if (p == ProcessTable.NO_PROCESS) {
+            return;
+        }
+        if (eventLog != null) {
+            eventLog.record(LogRecordType.DROP, now, p, multiCore != null ? processTable.getCore(p) : 0);
+        }
+        processTable.releaseProcess(p);
+    }
+
+    /**
+     * Copies the counters and the running estimates of the statistics into the monitor's snapshot and publishes it.
+     */
+    private void publishSnapshot(boolean finished) {
+        SimulationMonitor.Snapshot s = monitor.next;
+        double now = simulationClock.getSimulationTime();
+        SchedulingAlgorithm a = schedulingAlgorithm;
+        s.simulationTime = now;
+        s.completions = numProcessesHandled;
+        s.eventsProcessed = eventsProcessed;
+        s.arrivalEvents = arrivalEvents;
+        s.completionEvents = completionEvents;
+        s.timeSliceEvents = timeSliceEvents;
+        s.readyQueueDepth = scheduler.getQueuedProcesses();
+        s.maxReadyQueueDepth = Math.max((int) a.maxProcessesInReadyQueue(), s.readyQueueDepth);
+        s.eventQueueDepth = eventQueue.size();
+        s.maxEventQueueDepth = maxEventQueueDepth;
+        s.liveProcesses = processTable.getLiveProcesses();
+        s.avgTurnaroundTime = a.avgTurnaroundTime(now);
+        s.avgWaitingTime = a.avgWaitingTime(now);
+        s.throughput = a.throughput(now);
+        s.cpuUtilization = a.cpuUtilization(now);
+        s.avgProcessesInReadyQueue = a.avgProcessesInReadyQueue(now);
+        s.finished = finished;
+        monitor.publish();
+    }
+
+    /**
+     * This method places the arrival at `time` in the event queue, or notes that there are no more arrivals.
+     */
+    private void scheduleArrival(double time) {
+        if (Double.isNaN(time)) {
+            arrivalsExhausted = true;
+        } else {
+            eventQueue.insertEvent(EventType.ProcessArrival, time);
+        }
+    }
+
+    private SimulationResult collectResult(double totalSimTime) {
+        SchedulingAlgorithm s = schedulingAlgorithm;
+        ProportionalShareScheduler share = s instanceof ProportionalShareScheduler
+                ? (ProportionalShareScheduler) s : null;
+        return new SimulationResult(config, totalSimTime,
+                s.completions,
+                s.avgTurnaroundTime(totalSimTime),
+                s.throughput(totalSimTime),
+                s.cpuUtilization(totalSimTime),
+                s.avgProcessesInReadyQueue(totalSimTime),
+                s.avgWaitingTime(totalSimTime),
+                s.avgProcessesInSystem(totalSimTime),
+                (int) s.maxProcessesInReadyQueue(),
+                s.turnaroundTimes.getStandardDeviation(),
+                s.waitingTimes.getStandardDeviation(),
+                s.turnaroundHistogram,
+                s.waitingHistogram,
+                s.responseHistogram,
+                multiCore != null ? multiCore.getCoreUtilizations(totalSimTime)
+                        : new double[] {s.cpuUtilization(totalSimTime)},
+                multiCore != null ? multiCore.getCoreMigrations() : new long[1],
+                s instanceof MLFQ ? ((MLFQ) s).getLevelResidency(totalSimTime) : new double[0],
+                s instanceof MLFQ ? ((MLFQ) s).getLevelCpuShare() : new double[0],
+                s instanceof MLFQ ? ((MLFQ) s).getDemotions() : 0,
+                s instanceof MLFQ ? ((MLFQ) s).getBoosts() : 0,
+                share != null ? share.getShareRatio() : Double.NaN,
+                share != null ? share.getShareRatioStandardDeviation() : Double.NaN,
+                share != null ? share.getShareError() : Double.NaN,
+                warmupEnd, warmupCompletions,
+                warmup != null ? warmup.getTruncationTime() : Double.NaN,
+                admission.getRejected(), admission.getDropped());
+    }
+
+    static SchedulingAlgorithm createSchedulingAlgorithm(SimulationConfig config, ProcessTable processTable,
+                                                         RandomStreams randomStreams) {
+        // create scheduler based on user defined type
+        // the scheduler will internally set its type and create its specific Process Ready Queue
+        if (config.getSchedulerType() == SchedulerType.PSJF) {
+            return new PSJF(processTable);
+        }
+        // random numbers a scheduler draws come from their own streams, so they do not shift the arrival and
+        // service times
+        if (config.getSchedulerType() == SchedulerType.CFS) {
+            return new CFS(processTable, config.getTargetLatency(), config.getMinGranularity(),
+                    config.getMinNice(), config.getMaxNice(), randomStreams.newStream());
+        }
+        if (config.getSchedulerType() == SchedulerType.MLFQ) {
+            double[] quanta = config.getLevelQuanta() != null ? config.getLevelQuanta()
+                    : MLFQ.doublingQuanta(config.getLevels(), config.getQuantumForRR());
+            return new MLFQ(processTable, quanta, config.getBoostInterval());
+        }
+        if (config.getSchedulerType() == SchedulerType.LOTTERY) {
+            SplittableRandom draws = randomStreams.newStream();
+            return new Lottery(processTable, config.getQuantumForRR(), draws, config.getTickets(),
+                    randomStreams.newStream());
+        }
+        if (config.getSchedulerType() == SchedulerType.STRIDE) {
+            return new Stride(processTable, config.getQuantumForRR(), config.getTickets(), randomStreams.newStream());
+        }
+        return new RR(processTable, config.getQuantumForRR());
+    }
+
+    @Override
+    public EventQueue getEventQueue() {
+        return eventQueue;
+    }
+
+    @Override
+    public CPU getCpu() {
+        return simulationCPU;
+    }
+
+    @Override
+    public ProcessTable getProcessTable() {
+        return processTable;
+    }
+
+    @Override
+    public EventLog getEventLog() {
+        return eventLog;
+    }
+
+    @Override
+    public double getStopTime() {
+        return stopCondition.getType() == StopConditionType.SIMULATED_TIME
+                ? stopCondition.getLimit() : Double.POSITIVE_INFINITY;
+    }
+
+    long getNumProcessesHandled() {
+        return numProcessesHandled;
+    }
+
+    long getEventsProcessed() {
+        return eventsProcessed;
+    }
+}
@@ -0,0 +1,438 @@
+import java.util.SplittableRandom;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Holds every parameter needed to build a single `Simulation`. A config is a plain value holder - it is read once
+ * when the simulation is constructed, so the same config may be reused (or copied and tweaked) for many runs.
+ */
+
+class SimulationConfig {
+    private SchedulerType schedulerType = SchedulerType.PSJF;
+    private double lambda;                    // average rate of arrival
+    private double avgServiceTime;            // mean of the exponential burst time distribution
+    private double quantumForRR;              // only used by the Round Robin scheduler
+    private boolean togglePSJFCurve = false;  // count processes left in the PSJF queue when the run ends
+    private int replication = 0;              // index of this run among identical configs of a sweep
+    private EventQueueType eventQueueType = EventQueueType.HEAP;
+    private long seed = new SplittableRandom().nextLong();  // random unless set, but always known so a run can be repeated
+    private StopCondition stopCondition = StopCondition.DEFAULT;
+    private int cores = 1;                    // more than one core runs the MultiCoreEngine
+    private BalancingPolicy balancingPolicy = BalancingPolicy.STEAL;
+    private double balanceInterval = 0.05;    // PUSH balancing only
+    private double targetLatency = 0.006;     // CFS: period in which every runnable process should run once
+    private double minGranularity = 0.00075;  // CFS: shortest slice
+    private int minNice = 0;                  // CFS: nice levels are drawn uniformly from [minNice, maxNice]
+    private int maxNice = 0;
+    private int levels = 3;                   // MLFQ: number of levels
+    private double[] levelQuanta;             // MLFQ: quantum of each level, or null for quantum, 2 * quantum, ...
+    private double boostInterval = 1.0;       // MLFQ: period of the priority boost
+    private TicketDistribution tickets = TicketDistribution.DEFAULT;   // lottery and stride
+    private String tracePath;                 // replay this trace instead of generating arrivals, or null
+    private String eventLogPath;              // write a binary event log of the run there, or null
+    private boolean detectWarmup = false;     // truncate the warm-up period found by MSER-5
+    private String resultsPath;               // append the result to this `ResultsStore`, or null for the default
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.NONE;
+    private int maxQueue = 1000;              // REJECT and DROP_OLDEST: waiting processes an arrival may find
+    private int maxLive = 1000000;            // hard cap on the processes in the system, under every policy
+    private double tokenRate = Double.NaN;    // TOKEN_BUCKET: admissions per unit of time, NaN for the cores' capacity
+    private double tokenBurst = 100;          // TOKEN_BUCKET: size of the bucket
+    private boolean jmx = false;              // expose the run as a `SimulationMonitor` MBean while it goes on
+
+    SimulationConfig() {}
+
+    SimulationConfig(SchedulerType schedulerType, double lambda, double avgServiceTime, double quantumForRR) {
+        this.schedulerType = schedulerType;
+        this.lambda = lambda;
+        this.avgServiceTime = avgServiceTime;
+        this.quantumForRR = quantumForRR;
+    }
+
+    /**
+     * @return a new config holding the same values, so that a caller may change one parameter without
+     * affecting other simulations built from this config
+     */
+    SimulationConfig copy() {
+        SimulationConfig c = new SimulationConfig(schedulerType, lambda, avgServiceTime, quantumForRR);
+        c.setTogglePSJFCurve(togglePSJFCurve);
+        c.setReplication(replication);
+        c.setEventQueueType(eventQueueType);
+        c.setSeed(seed);
+        c.setStopCondition(stopCondition);
+        c.setCores(cores);
+        c.setBalancingPolicy(balancingPolicy);
+        c.setBalanceInterval(balanceInterval);
+        c.setTargetLatency(targetLatency);
+        c.setMinGranularity(minGranularity);
+        c.setNiceRange(minNice, maxNice);
+        c.setLevels(levels);
+        c.setLevelQuanta(levelQuanta);
+        c.setBoostInterval(boostInterval);
+        c.setTickets(tickets);
+        c.setTracePath(tracePath);
+        c.setEventLogPath(eventLogPath);
+        c.setResultsPath(resultsPath);
+        c.setDetectWarmup(detectWarmup);
+        c.setAdmissionPolicy(admissionPolicy);
+        c.setMaxQueue(maxQueue);
+        c.setMaxLive(maxLive);
+        c.setTokenRate(tokenRate);
+        c.setTokenBurst(tokenBurst);
+        c.setJmx(jmx);
+        return c;
+    }
+
+
+    /**
+     * Sets an optional parameter given as `key=value` on the command line or as `key = value` in a sweep grid.
+     */
+    void setOption(String key, String value) {
+        switch (key) {
+            case "eventQueue":
+                EventQueueType type = EventQueueType.fromName(value);
+                if (type == null) {
+                    throw new IllegalArgumentException("Unknown event queue: " + value + " (expected heap, calendar or ladder)");
+                }
+                setEventQueueType(type);
+                break;
+            case "seed":
+                setSeed(Long.parseLong(value));
+                break;
+            case "stop":
+                setStopCondition(StopCondition.parse(value));
+                break;
+            case "cores":
+                int n = Integer.parseInt(value);
+                if (n < 1) {
+                    throw new IllegalArgumentException("cores must be at least 1: " + value);
+                }
+                setCores(n);
+                break;
+            case "balance":
+                BalancingPolicy policy = BalancingPolicy.fromName(value);
+                if (policy == null) {
+                    throw new IllegalArgumentException("Unknown balancing policy: " + value + " (expected shared, push or steal)");
+                }
+                setBalancingPolicy(policy);
+                break;
+            case "balanceInterval":
+                setBalanceInterval(parsePositive(key, value));
+                break;
+            case "targetLatency":
+                setTargetLatency(parsePositive(key, value));
+                break;
+            case "minGranularity":
+                setMinGranularity(parsePositive(key, value));
+                break;
+            case "nice":
+                // a single level, or a range `min..max`
+                int range = value.indexOf("..");
+                int from = Integer.parseInt(range < 0 ? value.trim() : value.substring(0, range).trim());
+                int to = range < 0 ? from : Integer.parseInt(value.substring(range + 2).trim());
+                if (from < -20 || to > 19 || from > to) {
+                    throw new IllegalArgumentException("nice must be a level or range within -20..19: " + value);
+                }
+                setNiceRange(from, to);
+                break;
+            case "eventLog":
+                setEventLogPath(value.trim());
+                break;
+            case "warmup":
+                if (!value.trim().equalsIgnoreCase("mser5") && !value.trim().equalsIgnoreCase("none")) {
+                    throw new IllegalArgumentException("Unknown warm-up rule: " + value + " (expected mser5 or none)");
+                }
+                setDetectWarmup(value.trim().equalsIgnoreCase("mser5"));
+                break;
+            case "results":
+                setResultsPath(value.trim());
+                break;
+            case "trace":
+                setTracePath(value.trim());
+                break;
+            case "tickets":
+                setTickets(TicketDistribution.parse(value));
+                break;
+            case "levels":
+                int numLevels = Integer.parseInt(value);
+                if (numLevels < 1 || numLevels > MLFQ.MAX_LEVELS) {
+                    throw new IllegalArgumentException("levels must be within 1.." + MLFQ.MAX_LEVELS + ": " + value);
+                }
+                setLevels(numLevels);
+                break;
+            case "levelQuanta":
+                String[] parts = value.split("[,;]");
+                double[] quanta = new double[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    quanta[i] = parsePositive(key, parts[i].trim());
+                }
+                if (quanta.length > MLFQ.MAX_LEVELS) {
+                    throw new IllegalArgumentException("At most " + MLFQ.MAX_LEVELS + " level quanta: " + value);
+                }
+                setLevels(quanta.length);
+                setLevelQuanta(quanta);
+                break;
+            case "boostInterval":
+                setBoostInterval(parsePositive(key, value));
+                break;
+            case "admission":
+                AdmissionPolicy admission = AdmissionPolicy.fromName(value);
+                if (admission == null) {
+                    throw new IllegalArgumentException("Unknown admission policy: " + value
+                            + " (expected none, reject, dropOldest or tokenBucket)");
+                }
+                setAdmissionPolicy(admission);
+                break;
+            case "maxQueue":
+                setMaxQueue(parsePositiveInt(key, value));
+                break;
+            case "maxLive":
+                setMaxLive(parsePositiveInt(key, value));
+                break;
+            case "tokenRate":
+                setTokenRate(parsePositive(key, value));
+                break;
+            case "tokenBurst":
+                double burst = Double.parseDouble(value);
+                if (!(burst >= 1)) {
+                    throw new IllegalArgumentException("tokenBurst must be at least 1: " + value);
+                }
+                setTokenBurst(burst);
+                break;
+            case "jmx":
+                setJmx(Boolean.parseBoolean(value.trim()));
+                break;
+            case "togglePSJFCurve":
+                setTogglePSJFCurve(Boolean.parseBoolean(value));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + key);
+        }
+    }
+
+
+    private static double parsePositive(String key, String value) {
+        double d = Double.parseDouble(value);
+        if (!(d > 0)) {
+            throw new IllegalArgumentException(key + " must be positive: " + value);
+        }
+        return d;
+    }
+
+    private static int parsePositiveInt(String key, String value) {
+        int n = Integer.parseInt(value.trim());
+        if (n < 1) {
+            throw new IllegalArgumentException(key + " must be at least 1: " + value);
+        }
+        return n;
+    }
+
+
+    /* Getters and Setters */
+    SchedulerType getSchedulerType() {
+        return schedulerType;
+    }
+    void setSchedulerType(SchedulerType schedulerType) {
+        this.schedulerType = schedulerType;
+    }
+
+    double getLambda() {
+        return lambda;
+    }
+    void setLambda(double lambda) {
+        this.lambda = lambda;
+    }
+
+    double getAvgServiceTime() {
+        return avgServiceTime;
+    }
+    void setAvgServiceTime(double avgServiceTime) {
+        this.avgServiceTime = avgServiceTime;
+    }
+
+    double getQuantumForRR() {
+        return quantumForRR;
+    }
+    void setQuantumForRR(double quantumForRR) {
+        this.quantumForRR = quantumForRR;
+    }
+
+    boolean isTogglePSJFCurve() {
+        return togglePSJFCurve;
+    }
+    void setTogglePSJFCurve(boolean togglePSJFCurve) {
+        this.togglePSJFCurve = togglePSJFCurve;
+    }
+
+    int getReplication() {
+        return replication;
+    }
+    void setReplication(int replication) {
+        this.replication = replication;
+    }
+
+    EventQueueType getEventQueueType() {
+        return eventQueueType;
+    }
+    void setEventQueueType(EventQueueType eventQueueType) {
+        this.eventQueueType = eventQueueType;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+    void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    StopCondition getStopCondition() {
+        return stopCondition;
+    }
+    void setStopCondition(StopCondition stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    int getCores() {
+        return cores;
+    }
+    void setCores(int cores) {
+        this.cores = cores;
+    }
+
+    BalancingPolicy getBalancingPolicy() {
+        return balancingPolicy;
+    }
+    void setBalancingPolicy(BalancingPolicy balancingPolicy) {
+        this.balancingPolicy = balancingPolicy;
+    }
+
+    double getBalanceInterval() {
+        return balanceInterval;
+    }
+    void setBalanceInterval(double balanceInterval) {
+        this.balanceInterval = balanceInterval;
+    }
+
+    double getTargetLatency() {
+        return targetLatency;
+    }
+    void setTargetLatency(double targetLatency) {
+        this.targetLatency = targetLatency;
+    }
+
+    double getMinGranularity() {
+        return minGranularity;
+    }
+    void setMinGranularity(double minGranularity) {
+        this.minGranularity = minGranularity;
+    }
+
+    int getMinNice() {
+        return minNice;
+    }
+    int getMaxNice() {
+        return maxNice;
+    }
+    void setNiceRange(int minNice, int maxNice) {
+        this.minNice = minNice;
+        this.maxNice = maxNice;
+    }
+
+    String getEventLogPath() {
+        return eventLogPath;
+    }
+    void setEventLogPath(String eventLogPath) {
+        this.eventLogPath = eventLogPath;
+    }
+
+    boolean isDetectWarmup() {
+        return detectWarmup;
+    }
+    void setDetectWarmup(boolean detectWarmup) {
+        this.detectWarmup = detectWarmup;
+    }
+
+    String getResultsPath() {
+        return resultsPath;
+    }
+    void setResultsPath(String resultsPath) {
+        this.resultsPath = resultsPath;
+    }
+
+    AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+    void setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+        this.admissionPolicy = admissionPolicy;
+    }
+
+    int getMaxQueue() {
+        return maxQueue;
+    }
+    void setMaxQueue(int maxQueue) {
+        this.maxQueue = maxQueue;
+    }
+
+    int getMaxLive() {
+        return maxLive;
+    }
+    void setMaxLive(int maxLive) {
+        this.maxLive = maxLive;
+    }
+
+    double getTokenRate() {
+        return tokenRate;
+    }
+    void setTokenRate(double tokenRate) {
+        this.tokenRate = tokenRate;
+    }
+
+    double getTokenBurst() {
+        return tokenBurst;
+    }
+    void setTokenBurst(double tokenBurst) {
+        this.tokenBurst = tokenBurst;
+    }
+
+    boolean isJmx() {
+        return jmx;
+    }
+
+    void setJmx(boolean jmx) {
+        this.jmx = jmx;
+    }
+
+    String getTracePath() {
+        return tracePath;
+    }
+    void setTracePath(String tracePath) {
+        this.tracePath = tracePath;
+    }
+
+    TicketDistribution getTickets() {
+        return tickets;
+    }
+    void setTickets(TicketDistribution tickets) {
+        this.tickets = tickets;
+    }
+
+    int getLevels() {
+        return levels;
+    }
+    void setLevels(int levels) {
+        this.levels = levels;
+    }
+
+    double[] getLevelQuanta() {
+        return levelQuanta;
+    }
+    void setLevelQuanta(double[] levelQuanta) {
+        this.levelQuanta = levelQuanta;
+    }
+
+    double getBoostInterval() {
+        return boostInterval;
+    }
+    void setBoostInterval(double boostInterval) {
+        this.boostInterval = boostInterval;
+    }
+}
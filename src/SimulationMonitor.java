@@ -0,0 +1,237 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * JMX view of one `Simulation`, registered as `DiscreteEventSimulator:type=Simulation,scheduler=<type>,seed=<seed>,
+ * id=<n>` for as long as the run goes on.
+ *
+ * The simulation thread is the only writer. It keeps its counters in plain fields of its own and every few thousand
+ * events fills in the `next` snapshot from them (`Simulation.publishSnapshot`) and publishes a copy of it through a
+ * volatile field. So the event loop pays nothing per event beyond its counters, there are no locks, and a reader
+ * always sees a whole snapshot taken at a single event.
+ */
+
+final class SimulationMonitor implements SimulationMonitorMBean {
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final String scheduler;
+    private final long seed;
+    private final ObjectName name;
+
+    final Snapshot next = new Snapshot();                 // written by the simulation thread only
+    private volatile Snapshot current = new Snapshot();    // the last published copy of `next`
+    private long lastPublishNanos;
+    private long lastPublishEvents;
+
+    SimulationMonitor(SimulationConfig config) {
+        scheduler = config.getSchedulerType().toString();
+        seed = config.getSeed();
+        try {
+            name = new ObjectName("DiscreteEventSimulator:type=Simulation,scheduler=" + scheduler
+                    + ",seed=" + seed + ",id=" + NEXT_ID.incrementAndGet());
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+        lastPublishNanos = System.nanoTime();
+    }
+
+    /**
+     * Registers this monitor with the platform MBean server.
+     */
+    void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + name, e);
+        }
+    }
+
+    /**
+     * Removes this monitor from the platform MBean server, once the run is over.
+     */
+    void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister " + name, e);
+        }
+    }
+
+    ObjectName getName() {
+        return name;
+    }
+
+    /**
+     * Makes a copy of the snapshot just filled in visible to readers.
+     */
+    void publish() {
+        long now = System.nanoTime();
+        if (now > lastPublishNanos) {
+            next.eventsPerSecond = (next.eventsProcessed - lastPublishEvents) * 1e9 / (now - lastPublishNanos);
+        }
+        lastPublishNanos = now;
+        lastPublishEvents = next.eventsProcessed;
+        current = next.copy();
+    }
+
+    @Override
+    public String getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public double getSimulationTime() {
+        return current.simulationTime;
+    }
+
+    @Override
+    public long getCompletions() {
+        return current.completions;
+    }
+
+    @Override
+    public long getEventsProcessed() {
+        return current.eventsProcessed;
+    }
+
+    @Override
+    public long getArrivalEvents() {
+        return current.arrivalEvents;
+    }
+
+    @Override
+    public long getCompletionEvents() {
+        return current.completionEvents;
+    }
+
+    @Override
+    public long getTimeSliceEvents() {
+        return current.timeSliceEvents;
+    }
+
+    @Override
+    public long getOtherEvents() {
+        Snapshot s = current;
+        return s.eventsProcessed - s.arrivalEvents - s.completionEvents - s.timeSliceEvents;
+    }
+
+    @Override
+    public double getEventsPerSecond() {
+        return current.eventsPerSecond;
+    }
+
+    @Override
+    public int getReadyQueueDepth() {
+        return current.readyQueueDepth;
+    }
+
+    @Override
+    public int getMaxReadyQueueDepth() {
+        return current.maxReadyQueueDepth;
+    }
+
+    @Override
+    public int getEventQueueDepth() {
+        return current.eventQueueDepth;
+    }
+
+    @Override
+    public int getMaxEventQueueDepth() {
+        return current.maxEventQueueDepth;
+    }
+
+    @Override
+    public int getLiveProcesses() {
+        return current.liveProcesses;
+    }
+
+    @Override
+    public double getAvgTurnaroundTime() {
+        return current.avgTurnaroundTime;
+    }
+
+    @Override
+    public double getAvgWaitingTime() {
+        return current.avgWaitingTime;
+    }
+
+    @Override
+    public double getThroughput() {
+        return current.throughput;
+    }
+
+    @Override
+    public double getCpuUtilization() {
+        return current.cpuUtilization;
+    }
+
+    @Override
+    public double getAvgProcessesInReadyQueue() {
+        return current.avgProcessesInReadyQueue;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return current.finished;
+    }
+
+    /**
+     * The state of the run at one event.
+     */
+    static final class Snapshot {
+        double simulationTime;
+        long completions;
+        long eventsProcessed;
+        long arrivalEvents;
+        long completionEvents;
+        long timeSliceEvents;
+        double eventsPerSecond;
+        int readyQueueDepth;
+        int maxReadyQueueDepth;
+        int eventQueueDepth;
+        int maxEventQueueDepth;
+        int liveProcesses;
+        double avgTurnaroundTime;
+        double avgWaitingTime;
+        double throughput;
+        double cpuUtilization;
+        double avgProcessesInReadyQueue;
+        boolean finished;
+
+        Snapshot copy() {
+            Snapshot c = new Snapshot();
+            c.simulationTime = simulationTime;
+            c.completions = completions;
+            c.eventsProcessed = eventsProcessed;
+            c.arrivalEvents = arrivalEvents;
+            c.completionEvents = completionEvents;
+            c.timeSliceEvents = timeSliceEvents;
+            c.eventsPerSecond = eventsPerSecond;
+            c.readyQueueDepth = readyQueueDepth;
+            c.maxReadyQueueDepth = maxReadyQueueDepth;
+            c.eventQueueDepth = eventQueueDepth;
+            c.maxEventQueueDepth = maxEventQueueDepth;
+            c.liveProcesses = liveProcesses;
+            c.avgTurnaroundTime = avgTurnaroundTime;
+            c.avgWaitingTime = avgWaitingTime;
+            c.throughput = throughput;
+            c.cpuUtilization = cpuUtilization;
+            c.avgProcessesInReadyQueue = avgProcessesInReadyQueue;
+            c.finished = finished;
+            return c;
+        }
+    }
+}
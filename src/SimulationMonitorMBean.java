@@ -0,0 +1,59 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * What a running `Simulation` shows through JMX (jconsole, VisualVM, ...) when started with `jmx=true`. The values
+ * are a snapshot the simulation publishes every few thousand events, so they may lag the run by a fraction of a
+ * second. Times are in simulated seconds unless the name says otherwise.
+ *
+ * A standard MBean interface has to be public, unlike the rest of the simulator.
+ */
+
+public interface SimulationMonitorMBean {
+    String getScheduler();
+
+    long getSeed();
+
+    double getSimulationTime();
+
+    long getCompletions();
+
+    long getEventsProcessed();
+
+    long getArrivalEvents();
+
+    long getCompletionEvents();
+
+    long getTimeSliceEvents();
+
+    /**
+     * @return events of the scheduler's own timers - balancing, priority boosts and the like
+     */
+    long getOtherEvents();
+
+    /**
+     * @return events handled per second of wall-clock time between the last two snapshots
+     */
+    double getEventsPerSecond();
+
+    int getReadyQueueDepth();
+
+    int getMaxReadyQueueDepth();
+
+    int getEventQueueDepth();
+
+    int getMaxEventQueueDepth();
+
+    int getLiveProcesses();
+
+    double getAvgTurnaroundTime();
+
+    double getAvgWaitingTime();
+
+    double getThroughput();
+
+    double getCpuUtilization();
+
+    double getAvgProcessesInReadyQueue();
+
+    boolean isFinished();
+}
@@ -0,0 +1,281 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * Immutable snapshot of the statistics produced by one `Simulation` run, together with the config that produced it.
+ * Results are plain values, so they can be collected from many runs (sequential or parallel) and written out later.
+ * Besides the means, a result holds the p50, p99 and p99.9 of every latency, and the latency histograms of the run
+ * until `releaseHistograms` - a sweep merges them into its cells and only keeps the percentiles of every run. If the
+ * warm-up was truncated, all statistics describe the steady state after `warmupEnd` only.
+ */
+
+class SimulationResult {
+    static final double[] PERCENTILES = {50, 99, 99.9};
+
+    private final SimulationConfig config;
+    private final double totalSimTime;
+    private final double avgTurnaroundTime;
+    private final double throughput;
+    private final double cpuUtilization;
+    private final double avgProcessesInReadyQueue;
+    private final double avgWaitingTime;
+    private final long completions;
+    private final double avgProcessesInSystem;
+    private final int maxProcessesInReadyQueue;
+    private final double turnaroundTimeStdDev;
+    private final double waitingTimeStdDev;
+    private LatencyHistogram turnaroundHistogram;   // null once released
+    private LatencyHistogram waitingHistogram;
+    private LatencyHistogram responseHistogram;
+    private final double[] turnaroundPercentiles;   // at each of `PERCENTILES`
+    private final double[] waitingPercentiles;
+    private final double[] responsePercentiles;
+    private final double[] coreUtilizations;    // one per core
+    private final long[] coreMigrations;        // processes that migrated to each core
+    private final double[] levelResidency;      // MLFQ: average number of processes at each level, else empty
+    private final double[] levelCpuShare;       // MLFQ: share of the CPU time spent at each level, else empty
+    private final long demotions;               // MLFQ: processes moved down a level, else 0
+    private final long boosts;                  // MLFQ: priority boosts, else 0
+    private final double shareRatio;            // lottery and stride: mean received / entitled CPU time, else NaN
+    private final double shareRatioStdDev;
+    private final double shareError;            // lottery and stride: sum |received - entitled| / sum entitled
+    private final double warmupEnd;             // the statistics cover [warmupEnd, totalSimTime]; 0 without warm-up
+    private final long warmupCompletions;       // completions discarded with the warm-up
+    private final double truncationTime;        // MSER-5 truncation point, NaN if none was found or looked for
+    private final long rejected;                // arrivals turned away by admission control
+    private final long dropped;                 // waiting processes dropped to admit an arrival
+
+    SimulationResult(SimulationConfig config, double totalSimTime, long completions, double avgTurnaroundTime,
+                     double throughput, double cpuUtilization, double avgProcessesInReadyQueue, double avgWaitingTime,
+                     double avgProcessesInSystem, int maxProcessesInReadyQueue, double turnaroundTimeStdDev,
+                     double waitingTimeStdDev, LatencyHistogram turnaroundHistogram, LatencyHistogram waitingHistogram,
+                     LatencyHistogram responseHistogram, double[] coreUtilizations, long[] coreMigrations,
+                     double[] levelResidency, double[] levelCpuShare, long demotions, long boosts, double shareRatio,
+                     double shareRatioStdDev, double shareError, double warmupEnd, long warmupCompletions,
+                     double truncationTime, long rejected, long dropped) {
+        this.config = config;
+        this.totalSimTime = totalSimTime;
+        this.completions = completions;
+        this.avgProcessesInSystem = avgProcessesInSystem;
+        this.maxProcessesInReadyQueue = maxProcessesInReadyQueue;
+        this.turnaroundTimeStdDev = turnaroundTimeStdDev;
+        this.waitingTimeStdDev = waitingTimeStdDev;
+        this.turnaroundHistogram = turnaroundHistogram;
+        this.waitingHistogram = waitingHistogram;
+        this.responseHistogram = responseHistogram;
+        this.turnaroundPercentiles = percentiles(turnaroundHistogram);
+        this.waitingPercentiles = percentiles(waitingHistogram);
+        this.responsePercentiles = percentiles(responseHistogram);
+        this.coreUtilizations = coreUtilizations;
+        this.coreMigrations = coreMigrations;
+        this.levelResidency = levelResidency;
+        this.levelCpuShare = levelCpuShare;
+        this.demotions = demotions;
+        this.boosts = boosts;
+        this.shareRatio = shareRatio;
+        this.shareRatioStdDev = shareRatioStdDev;
+        this.shareError = shareError;
+        this.warmupEnd = warmupEnd;
+        this.warmupCompletions = warmupCompletions;
+        this.truncationTime = truncationTime;
+        this.rejected = rejected;
+        this.dropped = dropped;
+        this.avgTurnaroundTime = avgTurnaroundTime;
+        this.throughput = throughput;
+        this.cpuUtilization = cpuUtilization;
+        this.avgProcessesInReadyQueue = avgProcessesInReadyQueue;
+        this.avgWaitingTime = avgWaitingTime;
+    }
+
+    SimulationConfig getConfig() {
+        return config;
+    }
+
+    double getTotalSimTime() {
+        return totalSimTime;
+    }
+
+    double getAvgTurnaroundTime() {
+        return avgTurnaroundTime;
+    }
+
+    double getThroughput() {
+        return throughput;
+    }
+
+    double getCpuUtilization() {
+        return cpuUtilization;
+    }
+
+    double getAvgProcessesInReadyQueue() {
+        return avgProcessesInReadyQueue;
+    }
+
+    double getAvgWaitingTime() {
+        return avgWaitingTime;
+    }
+
+    long getCompletions() {
+        return completions;
+    }
+
+    double getAvgProcessesInSystem() {
+        return avgProcessesInSystem;
+    }
+
+    int getMaxProcessesInReadyQueue() {
+        return maxProcessesInReadyQueue;
+    }
+
+    double getTurnaroundTimeStdDev() {
+        return turnaroundTimeStdDev;
+    }
+
+    double getWaitingTimeStdDev() {
+        return waitingTimeStdDev;
+    }
+
+    /*
+     * The histograms are handed over by the finished simulation and must not be recorded into any more; they are
+     * only read, or added into another histogram.
+     */
+    LatencyHistogram getTurnaroundHistogram() {
+        return turnaroundHistogram;
+    }
+
+    LatencyHistogram getWaitingHistogram() {
+        return waitingHistogram;
+    }
+
+    LatencyHistogram getResponseHistogram() {
+        return responseHistogram;
+    }
+
+    /**
+     * Lets go of the histograms, once they have been merged elsewhere; the percentiles stay available.
+     */
+    void releaseHistograms() {
+        turnaroundHistogram = null;
+        waitingHistogram = null;
+        responseHistogram = null;
+    }
+
+    /**
+     * @param percentile one of `PERCENTILES`
+     */
+    double getTurnaroundPercentile(double percentile) {
+        return turnaroundPercentiles[percentileIndex(percentile)];
+    }
+
+    double getWaitingPercentile(double percentile) {
+        return waitingPercentiles[percentileIndex(percentile)];
+    }
+
+    double getResponsePercentile(double percentile) {
+        return responsePercentiles[percentileIndex(percentile)];
+    }
+
+    private static double[] percentiles(LatencyHistogram h) {
+        double[] values = new double[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            values[i] = h.getValueAtPercentile(PERCENTILES[i]);
+        }
+        return values;
+    }
+
+    private static int percentileIndex(double percentile) {
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (PERCENTILES[i] == percentile) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Only the p50, p99 and p99.9 of a run are kept: " + percentile);
+    }
+
+    int getCores() {
+        return coreUtilizations.length;
+    }
+
+    double getCoreUtilization(int core) {
+        return coreUtilizations[core];
+    }
+
+    long getCoreMigrations(int core) {
+        return coreMigrations[core];
+    }
+
+    long getMigrations() {
+        long total = 0;
+        for (long m : coreMigrations) {
+            total += m;
+        }
+        return total;
+    }
+
+    int getLevels() {
+        return levelResidency.length;
+    }
+
+    double getLevelResidency(int level) {
+        return levelResidency[level];
+    }
+
+    double getLevelCpuShare(int level) {
+        return levelCpuShare[level];
+    }
+
+    long getDemotions() {
+        return demotions;
+    }
+
+    long getBoosts() {
+        return boosts;
+    }
+
+    double getShareRatio() {
+        return shareRatio;
+    }
+
+    double getShareRatioStdDev() {
+        return shareRatioStdDev;
+    }
+
+    double getShareError() {
+        return shareError;
+    }
+
+    double getWarmupEnd() {
+        return warmupEnd;
+    }
+
+    long getWarmupCompletions() {
+        return warmupCompletions;
+    }
+
+    double getTruncationTime() {
+        return truncationTime;
+    }
+
+    long getRejected() {
+        return rejected;
+    }
+
+    long getDropped() {
+        return dropped;
+    }
+
+    double getMinCoreUtilization() {
+        double min = coreUtilizations[0];
+        for (double u : coreUtilizations) {
+            min = Math.min(min, u);
+        }
+        return min;
+    }
+
+    double getMaxCoreUtilization() {
+        double max = coreUtilizations[0];
+        for (double u : coreUtilizations) {
+            max = Math.max(max, u);
+        }
+        return max;
+    }
+}
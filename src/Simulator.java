@@ -1,343 +1,192 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Objects;
-import java.util.Random;
-
-import static java.lang.Math.log;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 /***
  * @author Jack Shendrikov
  *
- * This class drives the simulation of a single instance of a scheduler as specified by the user through
- * command line arguments. It contains a main while-loop that continues processing events until 10,000 processes complete.
- * In so doing, it does not stop or prevent the generation of new process arrivals - this is necessary for an accurate
- * simulation with valid statistical results.
- *
- * We have three main types of events - `ProcessArrival`, `ProcessCompletion`, and `TimeSliceOccurrence`. The latter is only
- * used by the Round Robin scheduler. I decided against having a fourth, separate event for a PSJF preemption.
- * As this occurs at the simulation time when it is detected, I handle it then and there.
+ * Command line entry point. It parses the arguments specified by the user, builds a `SimulationConfig` from them and
+ * hands it to a `Simulation`, which owns all of the state of the run (see `Simulation` for the event loop itself).
+ * When the run completes the statistics are printed and the result is appended to a `ResultsStore`.
  *
- * Every time we schedule a process on the CPU, we check to see if it is new or returning (already started previously).
- * We can then check if the process will complete or if it requires special treatment - preemption for PSJF or interrupt for RR.
+ * Because nothing in the simulator is static any more, many `Simulation` objects can be run in the same JVM,
+ * one after another or in parallel.
 ***/
 
 public class Simulator {
 
-    static int numProcessesHandled = 0;
-    private static boolean togglePSJFCurve = false;
-
     public static void main(String[] args) throws IOException {
 
-        if (args.length == 0 || args[0].toLowerCase().equals("help") || args.length < 4) {
+        if (args.length >= 2 && args[0].toLowerCase().equals("sweep")) {
+            runSweep(args[1], args.length >= 3 ? args[2] : "sweep.csv");
+        } else if (args.length >= 5 && args[0].toLowerCase().equals("replicate")) {
+            runReplications(Arrays.copyOfRange(args, 1, args.length));
+        } else if (args.length >= 2 && args[0].toLowerCase().equals("log")) {
+            EventLogReader.run(Arrays.copyOfRange(args, 1, args.length), System.out);
+        } else if (args.length >= 2 && args[0].toLowerCase().equals("results")) {
+            ResultsReader.run(Arrays.copyOfRange(args, 1, args.length), System.out);
+        } else if (args.length >= 3 && args[0].toLowerCase().equals("trace")) {
+            long records = TraceArrivals.convertToBinary(args[1], args[2]);
+            System.out.println(records + " records of " + args[1] + " written to " + args[2]);
+        } else if (args.length == 0 || args[0].toLowerCase().equals("help") || args.length < 4) {
             printProgramInstructions();
         } else {
-
-            /*
-                If user provides an optional 5th parameter, we can toggle the shape of certain PSJF curves for a different
-                interpretation as needed.
-             */
-            if (args.length == 5) {
-                if (args[4].equals("true") || args[4].equals("false")) {
-                    togglePSJFCurve = Boolean.parseBoolean(args[4]);
-                    System.out.println(togglePSJFCurve);
-                }
-
+            SimulationConfig config = parseConfig(args);
+            if (config == null) {
+                return;
             }
 
-            // initialize system state variables
-            final int algorithmType = Integer.parseInt(args[0]);
-            final int lambda = Integer.parseInt(args[1]);  // average rate of arrival
-            final double avgServiceTime = Double.parseDouble(args[2]);
-            final double quantumForRR = Double.parseDouble(args[3]);
-
-            // initialize simulation clock to 0
-            Clock simulationClock = new Clock();
-            simulationClock.setSimulationTime(0f);
-
-            EventQueue eventQueue = new EventQueue();
-
-            Event initialEvent = new Event(EventType.ProcessArrival, 0);
-            eventQueue.insertEvent(initialEvent);
-
-            // create the scheduling algorithm and the CPU to handle processes
-            SchedulingAlgorithm schedulingAlgorithm = createSchedulingAlgorithm(algorithmType);
-            CPU simulationCPU = new CPU();
-
-            /*
-             * I experimented with generating all 10k processes up-front but this caused issues in the distribution
-             * and calculated statistics values. Generating new arrivals as we go is a preferred approach that produces
-             * accurate results.
-             */
-
-            // while we have not processed N Processes to completion,
-            // keep going and handle events in the `EventQueue` as needed
-            while (numProcessesHandled < 10000) {
-                // Set `Clock` to EventTime
-                simulationClock.setSimulationTime(eventQueue.getSystemTimeFromHead());
-
-                // Do/process next event and remove from `EventQueue`
-                Event eventToProcess = eventQueue.returnAndRemoveHeadEvent();
-                EventType eventToProcessType = eventToProcess.getEventType();
-
-                /* If event is:
-                *   1) an arrival: create a process and add it to the scheduler's queue
-                *   2) a completion: update the intermediate numbers needed for statistics have scheduler start
-                *      executing next process in ReadyQueue if available and schedule completion event in the future if
-                *      RR because we know the completion times. RR is start time + quantum.
-                */
-                if (eventToProcessType == EventType.ProcessArrival) {
-                    // routine to unconditionally create new arrival event
-                    unconditionallyCreateNewArrival(lambda, simulationClock, eventQueue);
-
-                    // create the "arriving" process
-                    Process p = new Process();
-                    p.setArrivalTime(simulationClock.getSimulationTime());  // processArrivalTime = eventTime
-                    p.setBurstTime(genexp(1/avgServiceTime));
-                    p.setRemainingCpuTime(p.getBurstTime());
-
-                    // add new process to scheduler's ready queue unconditionally
-                    // only always use a process from the queue, not p directly
-                    Objects.requireNonNull(schedulingAlgorithm).addProcessToReadyQueue(p);
-
-                    if (algorithmType == SchedulerType.PSJF.getSchedulerType()) {
-                        // CPU not busy, give it a process from queue, no preemption possible in this case but may have completion
-                        if (!simulationCPU.isBusy()) {
-                            simulationCPU.setMyProcess(schedulingAlgorithm.getNextProcessForCPU());
-                            simulationCPU.setBusy(true);
-
-                            checkIfReturningAndSetTimes(simulationClock, simulationCPU);
-
-                            if (eventQueue.safelyPeekAtNextEvent().getEventType() == EventType.ProcessArrival) {
-                                if ((simulationClock.getSimulationTime() + simulationCPU.getMyProcess().getRemainingCpuTime())
-                                        <= eventQueue.safelyPeekAtNextEvent().getEventTime()) {
-                                    Event knownCompletion = new Event(EventType.ProcessCompletion,
-                                            simulationCPU.getMyProcess().getRestartTime() + simulationCPU.getMyProcess().getRemainingCpuTime());
-                                    eventQueue.insertEvent(knownCompletion);
-                                }
-                            }
-                        } // end CPU IDLE
-
-                        //else CPU is busy and we may have to preempt if conditions are met
-                        else {
-                            // process ready queue sorted by remTime, not arrival, so we are not guaranteed sequential processes
-                            // so, check system time for current time instead
-                            double elapsedTime = simulationClock.getSimulationTime() - simulationCPU.getMyProcess().getRestartTime();
-                            double oldRemTime = simulationCPU.getMyProcess().getRemainingCpuTime();
-                            double newRemTime = oldRemTime - elapsedTime;
-
-                            if (newRemTime <= 0) {
-                                Event knownCompletion = new Event(EventType.ProcessCompletion,
-                                        simulationClock.getSimulationTime() + oldRemTime);
-                                eventQueue.insertEvent(knownCompletion);
-                            }
-                            else if (schedulingAlgorithm.safelyPeekAtNextProcess().getRemainingCpuTime() >= newRemTime) {
-                                simulationCPU.getMyProcess().setRemainingCpuTime(newRemTime);
-                                determineCompletion(simulationClock, eventQueue, simulationCPU);
-
-                            }
-
-                            // else head process has a shorter remTime and we need to PREEMPT
-                            // no special event type because preemption happens at the current system time
-                            else if (schedulingAlgorithm.safelyPeekAtNextProcess().getRemainingCpuTime() < newRemTime){
-                                simulationCPU.getMyProcess().setRemainingCpuTime(newRemTime);
-                                Process tempProcess = simulationCPU.getMyProcess();
-                                simulationCPU.setMyProcess(schedulingAlgorithm.getNextProcessForCPU());
-                                checkIfReturningAndSetTimes(simulationClock, simulationCPU);
-                                schedulingAlgorithm.addProcessToReadyQueue(tempProcess);
-
-                                //determine completion
-                                determineCompletion(simulationClock, eventQueue, simulationCPU);
-                            }
-                        } // end CPU busy
-                    } // end PSJF arrival handling
+            SimulationResult result = new Simulation(config).run();
 
-                    else if (algorithmType == SchedulerType.RR.getSchedulerType()) {
-                        if (simulationCPU.isBusy()) {} else {
-                            simulationCPU.setMyProcess(schedulingAlgorithm.getNextProcessForCPU());
-                            simulationCPU.setBusy(true);
-                            checkIfReturningAndSetTimes(simulationClock, simulationCPU);
-                            determineCompletionOrQuantumInterrupt(quantumForRR, simulationClock, eventQueue, simulationCPU);
-                        } // end else CPU is IDLE
-                    } // end RR arrival handling
-                } // end if to handle Process Arrivals
+            System.out.println("Seed: " + config.getSeed());
+            System.out.println("Total sim time: " + result.getTotalSimTime());
+            System.out.println("Completed processes: " + result.getCompletions());
+            calculateStatistics(result);
 
-                else if (eventToProcessType == EventType.ProcessCompletion) {
-                    /* When an event completes, set its remainingCpuTime to zero
-                     * increment numProcessesHandled counter.
-                     * Also the CPU is free to work on another process, so we must give it one
-                     */
-                    numProcessesHandled++;
-
-                    if (numProcessesHandled == 10000) {
-                        System.out.println("10000th process completing now");
-                    }
-
-                    if (algorithmType == SchedulerType.PSJF.getSchedulerType()) {
-                        simulationCPU.getMyProcess().setRemainingCpuTime(0); // process is done
-                        simulationCPU.getMyProcess().setCompletionTime(simulationClock.getSimulationTime());
-                        simulationCPU.getMyProcess().setTurnaroundTime(simulationCPU.getMyProcess().getCompletionTime()
-                                - simulationCPU.getMyProcess().getArrivalTime());
-                        double completionMinusStart = simulationCPU.getMyProcess().getCompletionTime() - simulationCPU.getMyProcess().getStartTime();
-                        simulationCPU.getMyProcess().setWaitingTime(
-                                (simulationCPU.getMyProcess().getStartTime() - simulationCPU.getMyProcess().getArrivalTime()) +
-                                (completionMinusStart - simulationCPU.getMyProcess().getBurstTime()));
-
-                        // now that a process is complete, update runningSums that we will use to calculate statistics
-                        SchedulingAlgorithm.runningBurstTimeSum += simulationCPU.getMyProcess().getBurstTime();
-                        SchedulingAlgorithm.runningTurnaroundSum += simulationCPU.getMyProcess().getTurnaroundTime();
-                        SchedulingAlgorithm.runningWaitTimeSum += simulationCPU.getMyProcess().getWaitingTime();
-
-                        simulationCPU.setBusy(false);
-                        if (!Objects.requireNonNull(schedulingAlgorithm).myQueue.isEmpty()) {
-                            simulationCPU.setMyProcess(schedulingAlgorithm.getNextProcessForCPU());
-                            simulationCPU.setBusy(true);
-                            checkIfReturningAndSetTimes(simulationClock, simulationCPU);
-
-                            //determine completion
-                            Event nextEvent = eventQueue.safelyPeekAtNextEvent();
-                            if (nextEvent.getEventType() == EventType.ProcessArrival) {
-                                double nextArrival = nextEvent.getEventTime();
-                                double elapsedTime = nextArrival - simulationCPU.getMyProcess().getRestartTime();
-                                double oldRemTime = simulationCPU.getMyProcess().getRemainingCpuTime();
-                                double newRemTime = oldRemTime - elapsedTime;
-
-                                if (newRemTime <= 0) {
-                                    Event knownCompletion = new Event(EventType.ProcessCompletion,
-                                            simulationCPU.getMyProcess().getRestartTime() + oldRemTime);
-                                    eventQueue.insertEvent(knownCompletion);
-                                } else {
-                                    // we need to preempt when the new process arrives, not right now
-                                }
-                            }
-                        } else {
-                            continue;
-                        }
-                        // set start time for a new, non-returning process
-                    } // end PSJF completion
-
-                    else if (algorithmType == SchedulerType.RR.getSchedulerType()) {
-                        simulationCPU.getMyProcess().setRemainingCpuTime(0); // process is done
-                        simulationCPU.getMyProcess().setCompletionTime(simulationClock.getSimulationTime());
-                        simulationCPU.getMyProcess().setTurnaroundTime(simulationCPU.getMyProcess().getCompletionTime()
-                                - simulationCPU.getMyProcess().getArrivalTime());
-                        double completionMinusStart = simulationCPU.getMyProcess().getCompletionTime() - simulationCPU.getMyProcess().getStartTime();
-                        //simulationCPU.getMyProcess().setWaitingTime(simulationCPU.getMyProcess().getTurnaroundTime()
-                        //        - simulationCPU.getMyProcess().getBurstTime());
-                        simulationCPU.getMyProcess().setWaitingTime(
-                                (simulationCPU.getMyProcess().getStartTime() - simulationCPU.getMyProcess().getArrivalTime())
-                                + (completionMinusStart - simulationCPU.getMyProcess().getBurstTime()));
-
-                        // now that a process is complete, update runningSums that we will use to calculate statistics
-                        SchedulingAlgorithm.runningBurstTimeSum += simulationCPU.getMyProcess().getBurstTime();
-                        SchedulingAlgorithm.runningTurnaroundSum += simulationCPU.getMyProcess().getTurnaroundTime();
-                        SchedulingAlgorithm.runningWaitTimeSum += simulationCPU.getMyProcess().getWaitingTime();
-
-                        simulationCPU.setBusy(false);
-
-                        if (!Objects.requireNonNull(schedulingAlgorithm).myQueue.isEmpty()) {
-                            simulationCPU.setMyProcess(schedulingAlgorithm.getNextProcessForCPU());
-                            simulationCPU.setBusy(true);
-                            // set start time for a new, non-returning process
-                            if(!simulationCPU.getMyProcess().isReturning()) {
-                                simulationCPU.getMyProcess().setStartTime(simulationClock.getSimulationTime());
-                                simulationCPU.getMyProcess().setIsReturning(true);
-                            }
-
-                            determineCompletionOrQuantumInterrupt(quantumForRR, simulationClock, eventQueue, simulationCPU);
-                        } else {
-                            continue;
-                        }
-                    } // end RR completion
-                } // end else-if to handle Process Completions
-                else if (eventToProcessType == EventType.TimeSliceOccurrence) {
-                    simulationCPU.getMyProcess().setRemainingCpuTime(simulationCPU.getMyProcess().getRemainingCpuTime() - quantumForRR);
-                    Objects.requireNonNull(schedulingAlgorithm).myQueue.insertProcess(simulationCPU.getMyProcess());
-                    simulationCPU.setMyProcess(schedulingAlgorithm.getNextProcessForCPU());
-                    checkIfReturningAndSetTimes(simulationClock, simulationCPU);
-                    determineCompletionOrQuantumInterrupt(quantumForRR, simulationClock, eventQueue, simulationCPU);
-                } // end time slice occurrence
-            } // end while
-
-            if (Objects.requireNonNull(schedulingAlgorithm).getSchedulerType() == SchedulerType.PSJF && togglePSJFCurve) {
-                schedulingAlgorithm.myQueue.iterateAndGetRemainingDifferenceForPSJF(simulationClock.getSimulationTime());
-            }
-
-            if (schedulingAlgorithm.getSchedulerType() == SchedulerType.RR) {
-                schedulingAlgorithm.myQueue.iterateAndGetRemainingDifferenceForRR();
+            String resultsPath = config.getResultsPath() != null ? config.getResultsPath() : ResultsStore.DEFAULT_PATH;
+            try (ResultsStore store = new ResultsStore(resultsPath)) {
+                store.append(result);
             }
-
-            System.out.println("Total sim time: " + simulationClock.getSimulationTime());
-            calculateStatistics(schedulingAlgorithm, simulationClock.getSimulationTime(), lambda);
         } // end if-else args.length validation
     } // end main
 
     /**
-     * Used by PSJF algorithm to determine if and when a given process will complete.
+     * Runs every cell of the grid described in `gridPath` in this JVM and writes all results to `outputPath` at once.
      */
-    private static void determineCompletion(Clock simulationClock, EventQueue eventQueue, CPU simulationCPU) {
-        // determine completion
-        Event nextEvent = eventQueue.safelyPeekAtNextEvent();
-        if (nextEvent.getEventType() == EventType.ProcessArrival) {
-            double nextArrival = nextEvent.getEventTime();
-            double _elapsedTime = nextArrival - simulationClock.getSimulationTime();
-            double _oldRemTime = simulationCPU.getMyProcess().getRemainingCpuTime();
-            double _newRemTime = _oldRemTime - _elapsedTime;
-
-            if (_newRemTime <= 0) {
-                Event knownCompletion = new Event(EventType.ProcessCompletion,
-                        simulationClock.getSimulationTime() + _oldRemTime);
-                eventQueue.insertEvent(knownCompletion);
+    private static void runSweep(String gridPath, String outputPath) throws IOException {
+        SweepGrid grid = SweepGrid.readGrid(gridPath);
+        if (grid.isSequential()) {
+            long start = System.nanoTime();
+            ReplicationSummary[] summaries = ParameterSweep.runSequential(grid.createRunners(), grid.getThreads());
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            ParameterSweep.writeSummaries(summaries, outputPath);
+            long replications = 0;
+            for (ReplicationSummary s : summaries) {
+                replications += s.getReplications();
             }
+            System.out.println("Sweep of " + summaries.length + " cells (" + replications + " replications) on "
+                    + grid.getThreads() + " threads finished in " + seconds + " s, results written to " + outputPath);
+            return;
         }
-    } // end determineCompletion
+        ParameterSweep sweep = new ParameterSweep(grid);
+
+        long start = System.nanoTime();
+        SimulationResult[] results = sweep.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        String latencyPath = ParameterSweep.latencyPath(outputPath);
+        ParameterSweep.writeResults(results, outputPath);
+        ParameterSweep.writeLatencies(sweep.getCellLatencies(), latencyPath);
+        System.out.println("Sweep of " + results.length + " runs on " + grid.getThreads() + " threads finished in "
+                + seconds + " s, results written to " + outputPath + " and " + latencyPath);
+    }
 
     /**
-     * Used by multiple schedulers as a generic check to determine if a process is new or returning and set
-     * certain parameters accordingly. If a process is new, we set the start time, otherwise we do not so we do
-     * not override it.
+     * Runs replications of the config given by `args` until the stopping rule is met and prints the mean and
+     * confidence interval of every metric. The parameters of the stopping rule are given as `key=value` among the
+     * optional simulation parameters.
      */
-    private static void checkIfReturningAndSetTimes(Clock simulationClock, CPU simulationCPU) {
-        if (!simulationCPU.getMyProcess().isReturning()) {
-            simulationCPU.getMyProcess().setStartTime(simulationClock.getSimulationTime());
-            simulationCPU.getMyProcess().setRestartTime(simulationCPU.getMyProcess().getStartTime());
-            simulationCPU.getMyProcess().setIsReturning(true);
-        } else {
-            simulationCPU.getMyProcess().setRestartTime(simulationClock.getSimulationTime());
+    private static void runReplications(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        List<String> options = new ArrayList<>();
+        for (String arg : args) {
+            (arg.indexOf('=') > 0 ? options : positional).add(arg);
+        }
+        SimulationConfig config = parseConfig(positional.toArray(new String[0]));
+        if (config == null) {
+            return;
+        }
+        ReplicationRunner runner = new ReplicationRunner(config);
+        for (String option : options) {
+            int eq = option.indexOf('=');
+            String key = option.substring(0, eq);
+            String value = option.substring(eq + 1);
+            if (!runner.setParameter(key, value) && !setOption(config, key, value)) {
+                return;
+            }
+        }
+
+        String resultsPath = config.getResultsPath() != null ? config.getResultsPath() : ResultsStore.DEFAULT_PATH;
+        ReplicationSummary summary;
+        try (ResultsStore store = new ResultsStore(resultsPath)) {
+            runner.setStore(store);
+            summary = runner.run();
+        }
+
+        System.out.println("Seed: " + config.getSeed());
+        System.out.println("Replications: " + summary.getReplications() + (summary.isConverged()
+                ? " (stopping rule met)" : " (maximum reached before the stopping rule was met)"));
+        System.out.println("Mean +- half-width of the " + summary.getConfidence() * 100 + "% confidence interval:");
+        for (ResultColumn metric : ReplicationRunner.METRICS) {
+            System.out.println("\t" + metric + ": " + summary.getMean(metric) + " +- " + summary.getHalfWidth(metric));
         }
     }
 
     /**
-     * This method generates a new arrival event and places it in the event queue.
+     * Builds a `SimulationConfig` from the positional command line arguments.
+     * @return the config, or null if the scheduler type is out of range or cannot run on the requested cores
      */
-    private static void unconditionallyCreateNewArrival(int lambda, Clock simulationClock, EventQueue eventQueue) {
-        // routine to unconditionally create new arrival event
-        Event newArrival = new Event(EventType.ProcessArrival,
-                simulationClock.getSimulationTime() + genexp(lambda));
-        eventQueue.insertEvent(newArrival);
-    }
-
+    static SimulationConfig parseConfig(String[] args) {
+        // initialize system state variables
+        final int algorithmType = Integer.parseInt(args[0]);
+        final int lambda = Integer.parseInt(args[1]);  // average rate of arrival
+        final double avgServiceTime = Double.parseDouble(args[2]);
+        final double quantumForRR = Double.parseDouble(args[3]);
+
+        // validate that algorithmType is in range [1,6]
+        SchedulerType schedulerType = SchedulerType.fromSchedulerType(algorithmType);
+        if (schedulerType == null) {
+            System.out.print("Please enter a valid value for the algorithm type, in range [1,6].");
+            return null;
+        }
 
-    private static SchedulingAlgorithm createSchedulingAlgorithm(int algorithmType) {
-        SchedulingAlgorithm schedulingAlgorithm; // validate that algorithmType is in range (1,2)
-        if (algorithmType > 0 && algorithmType < 3) {
+        SimulationConfig config = new SimulationConfig(schedulerType, lambda, avgServiceTime, quantumForRR);
 
-            // create scheduler based on user defined type
-            // the scheduler will internally set its type and create its specific Process Ready Queue
-            if (algorithmType == SchedulerType.PSJF.getSchedulerType()) {  // PSJF
-                schedulingAlgorithm = new PSJF();
+        /*
+            If user provides an optional 5th parameter, we can toggle the shape of certain PSJF curves for a different
+            interpretation as needed.
+         */
+        if (args.length >= 5) {
+            if (args[4].equals("true") || args[4].equals("false")) {
+                config.setTogglePSJFCurve(Boolean.parseBoolean(args[4]));
+                System.out.println(config.isTogglePSJFCurve());
             }
-            else {  // RR
-                schedulingAlgorithm = new RR();
+        }
+
+        // any further arguments are optional parameters of the form key=value
+        for (int i = 4; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (eq > 0 && !setOption(config, args[i].substring(0, eq), args[i].substring(eq + 1))) {
+                return null;
             }
-        } else {
-            System.out.print("Please enter a valid value for the algorithm type, in range [1,2].");
+        }
+
+        // only PSJF and RR have a multi-core engine
+        if (config.getCores() > 1 && !schedulerType.supportsMultiCore()) {
+            System.out.println("The " + schedulerType + " scheduler only runs on a single core: use cores=1, or scheduler "
+                    + "type 1 (PSJF) or 2 (RR). Run with 'help' for the list of options.");
             return null;
         }
+        return config;
+    }
 
-        return  schedulingAlgorithm;
+    /**
+     * Sets the optional parameter `key` of `config`, or prints what is wrong with it and the usage instructions.
+     * @return false if the key is unknown or the value is invalid
+     */
+    private static boolean setOption(SimulationConfig config, String key, String value) {
+        try {
+            config.setOption(key, value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Cannot use " + key + "=" + value + ": " + e.getMessage());
+            System.out.println();
+            printProgramInstructions();
+            return false;
+        }
     }
 
     /***
@@ -345,90 +194,137 @@ public class Simulator {
      * command line arguments or types the word 'help'
      */
     private static void printProgramInstructions() {
-        System.out.println("Event Simulator for 2 scheduling algorithms. ");
+        System.out.println("Event Simulator for 6 scheduling algorithms. ");
         System.out.println("Author: Jack Shendrikov");
         System.out.println("Parameters 1 - 4 are required, including quantum even if it is not used by the scheduler.");
         System.out.println("java -jar DiscreteEventSimulator.jar <scheduler_type> <lambda> <avg. svc time> <quantum> <togglePSJFCurve>");
-        System.out.println("[scheduler_type] : value can be in the range [1,2].");
+        System.out.println("[scheduler_type] : value can be in the range [1,6].");
         System.out.println("\t1 - Preemptive Shortest Job First  (PSJF) Scheduler");
         System.out.println("\t2 - Round Robin (RR) Scheduler - requires 4th argument defining a quantum value.");
+        System.out.println("\t3 - Completely Fair Scheduler (CFS) - weighted fair sharing by virtual runtime.");
+        System.out.println("\t4 - Multi-level Feedback Queue (MLFQ) - the quantum is the quantum of the top level.");
+        System.out.println("\t5 - Lottery Scheduler - a ticket is drawn every quantum.");
+        System.out.println("\t6 - Stride Scheduler - deterministic proportional share, one stride per quantum.");
         System.out.println("[lambda] : average rate lambda that follows a Poisson process, to ensure exponential inter-arrival times.");
         System.out.println("[avg. svc time] : the service time is chosen according to an exponential distribution with an average service time of this third argument");
         System.out.println("[quantum] : optional argument only required for Round Robin (scheduler_type = 2). Defines the length of the quantum time slice.");
         System.out.println("[togglePSJFCurve] : accepts true or false. Optional argument to toggle the PSJF curve from flat (false) to non-flat (true).");
+        System.out.println("Optional key=value arguments may follow:");
+        System.out.println("\teventQueue=heap|calendar|ladder : implementation of the pending event set (default heap).");
+        System.out.println("\tseed=<long> : seed of the run's random numbers; the same seed reproduces the same run (default random, printed).");
+        System.out.println("\tstop=completions:<n>|time:<t>|wall:<seconds> : when the run stops (default completions:10000).");
+        System.out.println("\tcores=<n> : number of cores (default 1); with more than one, every core has its own ready queue.");
+        System.out.println("\tbalance=shared|push|steal : multi-core load balancing - one shared queue, periodic push migration");
+        System.out.println("\t\tor idle-core work stealing (default steal).");
+        System.out.println("\tbalanceInterval=<t> : period of push migration (default 0.05).");
+        System.out.println("\ttargetLatency=<t>, minGranularity=<t> : CFS scheduling period and shortest slice (default 0.006, 0.00075).");
+        System.out.println("\tlevels=<n>, levelQuanta=<q0;q1;...>, boostInterval=<t> : MLFQ levels (default 3, with quanta");
+        System.out.println("\t\tquantum, 2 * quantum, 4 * quantum, ...) and period of the priority boost (default 1).");
+        System.out.println("\ttickets=<n>|<min>..<max>|exp:<mean> : lottery and stride tickets of every process, a uniform range");
+        System.out.println("\t\tor an exponential distribution to draw them from (default 1..100).");
+        System.out.println("\tnice=<level>|<min>..<max> : CFS nice level of every process, or a range to draw them from uniformly (default 0).");
+        System.out.println("\teventLog=<file> : write every arrival, dispatch, preemption, time slice, completion and drop to a binary log.");
+        System.out.println("\twarmup=mser5|none : detect the end of the warm-up period with MSER-5 and reset the statistics then (default none).");
+        System.out.println("\tresults=<file> : columnar file to append the config and metrics of the run to (default results.col).");
+        System.out.println("\tadmission=none|reject|dropOldest|tokenBucket : what to do with arrivals in overload - admit all,");
+        System.out.println("\t\treject those that find maxQueue processes waiting, drop the oldest waiting process for them,");
+        System.out.println("\t\tor admit at most tokenRate per unit of time in bursts of tokenBurst (default none).");
+        System.out.println("\tmaxQueue=<n>, tokenRate=<r>, tokenBurst=<n> : parameters of the policies (default 1000, cores / avg. svc time, 100).");
+        System.out.println("\tmaxLive=<n> : hard cap on the processes in the system; arrivals beyond it are rejected (default 1000000).");
+        System.out.println("\tjmx=true|false : expose the running simulation as an MBean, to watch it in jconsole (default false).");
+        System.out.println("\ttrace=<file> : replay the (arrival, burst) records of a binary or .csv trace instead of generating");
+        System.out.println("\t\tarrivals; lambda and avg. svc time are then ignored. The run ends with the trace or by the stop");
+        System.out.println("\t\tcondition, whichever comes first - still completions:10000 by default, so raise it to replay a long trace.");
+        System.out.println();
+        System.out.println("java -jar DiscreteEventSimulator.jar sweep <grid file> <output file>");
+        System.out.println("Runs every combination of scheduler x lambda x avg. svc time x quantum x replications listed in the grid file");
+        System.out.println("on all available cores and writes the results to the output file (default sweep.csv) once at the end.");
+        System.out.println();
+        System.out.println("java -jar DiscreteEventSimulator.jar replicate <scheduler_type> <lambda> <avg. svc time> <quantum> [key=value ...]");
+        System.out.println("Runs independent replications in parallel until the confidence intervals are narrow enough and prints");
+        System.out.println("the mean and half-width of every metric. Besides the simulation parameters it takes");
+        System.out.println("\tprecision=<r> : stop once the half-width is at most r times the mean (default 0.05),");
+        System.out.println("\tconfidence=<c> : confidence level of the intervals (default 0.95),");
+        System.out.println("\tminReplications=<n>, maxReplications=<n> : bounds on the replications (default 3, 1000),");
+        System.out.println("\tstopOn=<metric>,... : metrics the rule is applied to (default avg_turnaround,avg_waiting),");
+        System.out.println("\tthreads=<n> : replications run at a time (default all available cores).");
+        System.out.println("A sweep grid with a precision line runs every cell this way, with replications as the maximum.");
+        System.out.println();
+        System.out.println("java -jar DiscreteEventSimulator.jar trace <csv trace> <binary trace>");
+        System.out.println("Converts a trace of `arrival,burst` lines to the binary format of 16-byte little-endian double pairs.");
+        System.out.println();
+        System.out.println("java -jar DiscreteEventSimulator.jar log <event log> [from=<t>] [to=<t>] [type=<type>,...] [process=<id>]");
+        System.out.println("\t[core=<n>] [window=<t>] [list]");
+        System.out.println("Filters an event log and summarizes it by time window; list also prints the matching records.");
+        System.out.println();
+        System.out.println("java -jar DiscreteEventSimulator.jar results <results file> [<column> ...] [<column>=<value> ...]");
+        System.out.println("Prints the named columns (default all) of the rows matching every column=value filter as CSV.");
     }
 
-    /**
-     * @return rand (0,1)
-     */
-    private static double urand() {
-        Random rand = new Random();
-
-        return rand.nextDouble();
-    }
-
-    /**
-     * @return either arrival time or service time
-     */
-    private static double genexp(double lambda) {
-        double u, x;
-        x = 0;
-
-        while (x == 0) {
-            u = urand();
-            x = (-1/lambda)*log(u);
+    private static void calculateStatistics(SimulationResult r) {
+        double cpuUtil = r.getCpuUtilization();
+        double avgTurn = r.getAvgTurnaroundTime();
+        double avgThroughput = r.getThroughput();
+        double avgProcessInQueue = r.getAvgProcessesInReadyQueue();
+        double avgWaitingTime = r.getAvgWaitingTime();
+
+        if (r.getConfig().isDetectWarmup()) {
+            System.out.println(Double.isNaN(r.getTruncationTime())
+                    ? "Warm-up: no truncation point found, the statistics cover the whole run"
+                    : "Warm-up: MSER-5 truncation point at " + r.getTruncationTime() + ", statistics reset at "
+                    + r.getWarmupEnd() + " after " + r.getWarmupCompletions() + " completions");
         }
-        return x;
-    }
-
-    private static void determineCompletionOrQuantumInterrupt(double quantumForRR, Clock simulationClock, EventQueue eventQueue, CPU simulationCPU) {
-        if (simulationCPU.getMyProcess().getRemainingCpuTime() - quantumForRR <= 0) {
-            Event knownCompletion = new Event(EventType.ProcessCompletion,
-                    simulationClock.getSimulationTime() + simulationCPU.getMyProcess().getRemainingCpuTime());
-            eventQueue.insertEvent(knownCompletion);
-        } else if (simulationCPU.getMyProcess().getRemainingCpuTime() - quantumForRR > 0) {
-            Event interrupt = new Event(EventType.TimeSliceOccurrence,
-                    simulationClock.getSimulationTime() + quantumForRR);
-            eventQueue.insertEvent(interrupt);
+        if (r.getConfig().getAdmissionPolicy() != AdmissionPolicy.NONE || r.getRejected() > 0) {
+            System.out.println("Admission (" + r.getConfig().getAdmissionPolicy() + "): " + r.getRejected()
+                    + " arrivals rejected, " + r.getDropped() + " waiting processes dropped");
         }
-    }
-
-
-    private static void calculateStatistics(SchedulingAlgorithm s, double totalSimTime, int lambda) throws IOException {
-        double cpuUtil = s.cpuUtilization(totalSimTime);
-        double avgTurn = s.avgTurnaroundTime(totalSimTime);
-        double avgThroughput = s.throughput(totalSimTime);
-        double avgProcessInQueue = s.avgProcessesInReadyQueue(lambda);
-        double avgWaitingTime = s.avgWaitingTime(totalSimTime);
-        // minor correction to rounding
-        if (s.getSchedulerType() == SchedulerType.PSJF && cpuUtil > 1) {
-            cpuUtil = cpuUtil - 0.0499;
-        }
-
         System.out.println("Average Turnaround Time: " + avgTurn);
         System.out.println("Average Throughput: " + avgThroughput);
         System.out.println("CPU Utilization: " + cpuUtil);
         System.out.println("Average number of processes in Ready Queue: " + avgProcessInQueue);
         System.out.println("Average Waiting Time: " + avgWaitingTime);
-
-        FileWriter pw = new FileWriter("test.csv", true);
-        BufferedReader br = new BufferedReader(new FileReader("test.csv"));
-        StringBuilder sb = new StringBuilder();
-
-        if(br.readLine() == null) {
-            sb.append("Lambda, Average Turnaround, Throughput, CPU Utilization, Average # of processes in Ready Queue, Average Waiting Time");
+        System.out.println("Average number of processes in the system: " + r.getAvgProcessesInSystem());
+        System.out.println("Maximum number of processes in Ready Queue: " + r.getMaxProcessesInReadyQueue());
+        System.out.println("Turnaround Time Std. Dev.: " + r.getTurnaroundTimeStdDev());
+        System.out.println("Waiting Time Std. Dev.: " + r.getWaitingTimeStdDev());
+        System.out.println("Turnaround Time p50 / p99 / p99.9: " + formatPercentiles(r.getTurnaroundHistogram()));
+        System.out.println("Waiting Time p50 / p99 / p99.9: " + formatPercentiles(r.getWaitingHistogram()));
+        System.out.println("Response Time p50 / p99 / p99.9: " + formatPercentiles(r.getResponseHistogram()));
+        if (r.getLevels() > 0) {
+            System.out.println("MLFQ levels: " + r.getLevels() + ", demotions: " + r.getDemotions()
+                    + ", priority boosts: " + r.getBoosts());
+        }
+        for (int level = 0; level < r.getLevels(); level++) {
+            System.out.println("\tlevel " + level + ": average processes " + r.getLevelResidency(level)
+                    + ", CPU share " + r.getLevelCpuShare(level));
+        }
+        if (r.getConfig().getSchedulerType().isProportionalShare()) {
+            System.out.println("CPU share received / entitled by tickets: mean " + r.getShareRatio()
+                    + ", std. dev. " + r.getShareRatioStdDev() + ", share error " + r.getShareError());
+        }
+        if (r.getCores() > 1) {
+            System.out.println("Cores: " + r.getCores() + " (" + r.getConfig().getBalancingPolicy() + " balancing), "
+                    + "migrations: " + r.getMigrations());
+            System.out.println("Core utilization min / max: " + r.getMinCoreUtilization() + " / " + r.getMaxCoreUtilization());
+            for (int c = 0; c < r.getCores(); c++) {
+                System.out.println("\tcore " + c + ": utilization " + r.getCoreUtilization(c)
+                        + ", migrations in " + r.getCoreMigrations(c));
+            }
         }
+    }
 
-        sb.append('\n');
-        sb.append(lambda).append(',');
-        sb.append(avgTurn).append(',');
-        sb.append(s.throughput(totalSimTime)).append(',');
-        sb.append(cpuUtil).append(',');
-        sb.append(s.avgProcessesInReadyQueue(lambda)).append(',');
-        sb.append(s.avgWaitingTime(totalSimTime));
+    private static String formatPercentiles(LatencyHistogram h) {
+        return h.getValueAtPercentile(50) + " / " + h.getValueAtPercentile(99) + " / " + h.getValueAtPercentile(99.9);
+    }
 
-        pw.write(sb.toString());
-        pw.close();
+    /**
+     * Lambda is read as a whole number from the command line, so keep writing it without a trailing ".0".
+     */
+    static String formatLambda(double lambda) {
+        if (lambda == Math.rint(lambda)) {
+            return String.valueOf((long) lambda);
+        }
+        return String.valueOf(lambda);
     }
 
 }
@@ -0,0 +1,71 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * When a simulation stops: after a number of completed processes (10,000 by default), once the simulated clock
+ * passes a time, or after a wall-clock budget in seconds. Given on the command line as `stop=<kind>:<limit>`, e.g.
+ * `stop=completions:1000000000`, `stop=time:50000` or `stop=wall:60`; a bare number means completions.
+ */
+
+enum StopConditionType {
+    COMPLETIONS("completions"), SIMULATED_TIME("time"), WALL_CLOCK("wall");
+
+    private final String name;
+
+    StopConditionType(String name) {
+        this.name = name;
+    }
+
+    static StopConditionType fromName(String name) {
+        for (StopConditionType t : values()) {
+            if (t.name.equalsIgnoreCase(name)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
+
+final class StopCondition {
+    static final StopCondition DEFAULT = new StopCondition(StopConditionType.COMPLETIONS, 10000);
+
+    private final StopConditionType type;
+    private final double limit;
+
+    StopCondition(StopConditionType type, double limit) {
+        if (!(limit > 0)) {
+            throw new IllegalArgumentException("The limit of a stop condition must be positive: " + limit);
+        }
+        this.type = type;
+        this.limit = limit;
+    }
+
+    static StopCondition parse(String value) {
+        int colon = value.indexOf(':');
+        if (colon < 0) {
+            return new StopCondition(StopConditionType.COMPLETIONS, Double.parseDouble(value.trim()));
+        }
+        StopConditionType type = StopConditionType.fromName(value.substring(0, colon).trim());
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown stop condition: " + value + " (expected completions, time or wall)");
+        }
+        return new StopCondition(type, Double.parseDouble(value.substring(colon + 1).trim()));
+    }
+
+    StopConditionType getType() {
+        return type;
+    }
+
+    double getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + (limit == Math.rint(limit) ? String.valueOf((long) limit) : String.valueOf(limit));
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.SplittableRandom;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Stride scheduling (C. Waldspurger and W. Weihl, 1995) specialization class, the deterministic counterpart of
+ * lottery scheduling. Every process has a stride inversely proportional to its tickets and a pass value; the
+ * process with the smallest pass runs next, and each quantum it uses adds its stride to its pass. The queued
+ * processes are kept in a `PassHeap`.
+ *
+ * A new process starts at the pass of the last process dispatched, so it neither jumps ahead of the others nor
+ * lags behind them. Pass values are `long`, so equal tickets give exactly equal strides.
+ */
+
+class Stride extends ProportionalShareScheduler {
+    static final long STRIDE1 = 1L << 30;   // stride of a process with one ticket
+
+    private final PassHeap heap;
+    private long minPass;
+
+    Stride(ProcessTable processTable, double quantum, TicketDistribution tickets, SplittableRandom ticketCounts) {
+        super(processTable, quantum, tickets, ticketCounts);
+        this.setSchedulerType(SchedulerType.STRIDE);
+        this.heap = new PassHeap(processTable);
+    }
+
+    @Override
+    void enqueue(int p) {
+        if (!processTable.isReturning(p)) {
+            processTable.setPass(p, minPass);
+        }
+        heap.insert(p);
+    }
+
+    @Override
+    int getNextProcessForCPU() {
+        int p = heap.removeMin();
+        if (p != ProcessTable.NO_PROCESS) {
+            minPass = Math.max(minPass, processTable.getPass(p));
+        }
+        return p;
+    }
+
+    @Override
+    int safelyPeekAtNextProcess() {
+        return heap.peekMin();
+    }
+
+    @Override
+    boolean isReadyQueueEmpty() {
+        return heap.isEmpty();
+    }
+
+    @Override
+    int readyQueueSize() {
+        return heap.size();
+    }
+
+    /**
+     * `p` used up its quantum: it is charged one stride.
+     */
+    @Override
+    void onQuantumExpired(int p) {
+        processTable.setPass(p, processTable.getPass(p) + STRIDE1 / processTable.getTickets(p));
+    }
+}
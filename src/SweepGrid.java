@@ -0,0 +1,215 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Describes a parameter sweep: every combination of scheduler x lambda x avg. service time x quantum, each run
+ * `replications` times. The grid is read from a small text file with one `key = values` line per parameter:
+ *
+ *      # lines starting with '#' are comments
+ *      scheduler = 1, 2, 3
+ *      lambda = 1..50          (a range, step 1; `1..50:0.5` gives a step of 0.5)
+ *      avgServiceTime = 0.06
+ *      quantum = 0.01, 0.02
+ *      replications = 30
+ *      threads = 64            (optional, defaults to the number of available cores)
+ *      seed = 42               (optional; the seed of every run is drawn from it in grid order)
+ *      eventQueue = calendar   (any other key is passed to every run as an optional simulation parameter)
+ *
+ * With `precision = <relative half-width>` the replications of each cell are sequential instead: a
+ * `ReplicationRunner` runs them until the confidence intervals are narrow enough, `replications` becomes their
+ * maximum, and `confidence`, `minReplications` and `stopOn` tune the stopping rule.
+ *
+ * PSJF and CFS ignore the quantum, so for them only the first quantum value is used instead of repeating identical
+ * cells.
+ */
+
+class SweepGrid {
+    private final List<SchedulerType> schedulers = new ArrayList<>();
+    private final List<Double> lambdas = new ArrayList<>();
+    private final List<Double> avgServiceTimes = new ArrayList<>();
+    private final List<Double> quantums = new ArrayList<>();
+    private int replications = 1;
+    private boolean replicationsSet;
+    private final Map<String, String> stoppingRule = new LinkedHashMap<>();   // ReplicationRunner parameters
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private final SimulationConfig baseConfig = new SimulationConfig();
+
+    static SweepGrid readGrid(String path) throws IOException {
+        SweepGrid grid = new SweepGrid();
+        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int eq = line.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " of " + path + " is not of the form key = values");
+                }
+                grid.setParameter(line.substring(0, eq).trim(), line.substring(eq + 1).trim());
+            }
+        }
+        grid.validate();
+        return grid;
+    }
+
+    void setParameter(String key, String values) {
+        switch (key) {
+            case "scheduler":
+                for (double v : parseValues(values)) {
+                    SchedulerType t = SchedulerType.fromSchedulerType((int) v);
+                    if (t == null) {
+                        throw new IllegalArgumentException("Unknown scheduler type " + v);
+                    }
+                    schedulers.add(t);
+                }
+                break;
+            case "lambda":
+                lambdas.addAll(parseValues(values));
+                break;
+            case "avgServiceTime":
+                avgServiceTimes.addAll(parseValues(values));
+                break;
+            case "quantum":
+                quantums.addAll(parseValues(values));
+                break;
+            case "replications":
+                replications = Integer.parseInt(values);
+                replicationsSet = true;
+                break;
+            case "precision":
+            case "confidence":
+            case "minReplications":
+            case "stopOn":
+                stoppingRule.put(key, values);
+                break;
+            case "threads":
+                threads = Integer.parseInt(values);
+                break;
+            default:
+                // anything else is an optional simulation parameter shared by every run of the sweep
+                baseConfig.setOption(key, values);
+        }
+    }
+
+    /**
+     * Parses a comma separated list of numbers and ranges of the form `from..to` or `from..to:step`.
+     */
+    static List<Double> parseValues(String values) {
+        List<Double> result = new ArrayList<>();
+        for (String part : values.split(",")) {
+            part = part.trim();
+            int range = part.indexOf("..");
+            if (range < 0) {
+                result.add(Double.parseDouble(part));
+                continue;
+            }
+            double from = Double.parseDouble(part.substring(0, range));
+            String rest = part.substring(range + 2);
+            double step = 1;
+            int colon = rest.indexOf(':');
+            if (colon >= 0) {
+                step = Double.parseDouble(rest.substring(colon + 1));
+                rest = rest.substring(0, colon);
+            }
+            double to = Double.parseDouble(rest);
+            if (step <= 0) {
+                throw new IllegalArgumentException("Range step must be positive: " + part);
+            }
+            // multiply rather than accumulate, so long ranges do not drift
+            for (int i = 0; from + i * step <= to + step * 1e-9; i++) {
+                result.add(from + i * step);
+            }
+        }
+        return result;
+    }
+
+    private void validate() {
+        if (schedulers.isEmpty() || lambdas.isEmpty() || avgServiceTimes.isEmpty()) {
+            throw new IllegalArgumentException("A sweep needs at least one scheduler, lambda and avgServiceTime");
+        }
+        if (quantums.isEmpty()) {
+            quantums.add(0.0);
+        }
+        if (replications < 1 || threads < 1) {
+            throw new IllegalArgumentException("replications and threads must be at least 1");
+        }
+    }
+
+    /**
+     * @return one config per run of the sweep, ordered by scheduler, lambda, avg. service time, quantum and replication
+     */
+    List<SimulationConfig> createConfigs() {
+        return createConfigs(replications);
+    }
+
+    private List<SimulationConfig> createConfigs(int replications) {
+        List<SimulationConfig> configs = new ArrayList<>();
+        // every run gets its own seed, drawn in grid order from the sweep's seed, so the whole sweep is reproducible
+        // no matter which thread ends up running which cell
+        SplittableRandom seeds = new SplittableRandom(baseConfig.getSeed());
+        for (SchedulerType scheduler : schedulers) {
+            for (double lambda : lambdas) {
+                for (double avgServiceTime : avgServiceTimes) {
+                    int quantumCount = scheduler.usesQuantum() ? quantums.size() : 1;
+                    for (int q = 0; q < quantumCount; q++) {
+                        for (int r = 0; r < replications; r++) {
+                            SimulationConfig c = baseConfig.copy();
+                            c.setSchedulerType(scheduler);
+                            c.setLambda(lambda);
+                            c.setAvgServiceTime(avgServiceTime);
+                            c.setQuantumForRR(quantums.get(q));
+                            c.setReplication(r);
+                            c.setSeed(seeds.nextLong());
+                            configs.add(c);
+                        }
+                    }
+                }
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * @return one `ReplicationRunner` per cell of the sweep, in grid order, each with its own seed drawn in grid
+     * order from the sweep's seed
+     */
+    List<ReplicationRunner> createRunners() {
+        List<ReplicationRunner> runners = new ArrayList<>();
+        for (SimulationConfig cell : createConfigs(1)) {
+            ReplicationRunner runner = new ReplicationRunner(cell);
+            for (Map.Entry<String, String> e : stoppingRule.entrySet()) {
+                runner.setParameter(e.getKey(), e.getValue());
+            }
+            if (replicationsSet) {
+                runner.setParameter("maxReplications", String.valueOf(replications));
+            }
+            // the cells are spread over the threads, so each runs its replications one at a time
+            runner.setThreads(1);
+            runners.add(runner);
+        }
+        return runners;
+    }
+
+    /**
+     * @return true if the grid asks for sequential replications until a precision is reached
+     */
+    boolean isSequential() {
+        return stoppingRule.containsKey("precision");
+    }
+
+    int getThreads() {
+        return threads;
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.SplittableRandom;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * How many tickets a new process gets under the lottery and stride schedulers. Given on the command line as
+ * `tickets=<n>` (every process gets n), `tickets=<min>..<max>` (uniform over the range, the default 1..100) or
+ * `tickets=exp:<mean>` (exponential with the given mean, rounded up, so a few processes hold many tickets).
+ */
+
+final class TicketDistribution {
+    static final int MAX_TICKETS = 1 << 20;
+    static final TicketDistribution DEFAULT = new TicketDistribution(1, 100, 0);
+
+    private final int min;
+    private final int max;
+    private final double mean;     // > 0 for the exponential distribution
+
+    private TicketDistribution(int min, int max, double mean) {
+        if (min < 1 || max < min || max > MAX_TICKETS) {
+            throw new IllegalArgumentException("Ticket counts must be within 1.." + MAX_TICKETS + ": " + min + ".." + max);
+        }
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+    }
+
+    static TicketDistribution parse(String value) {
+        value = value.trim();
+        if (value.startsWith("exp:")) {
+            double mean = Double.parseDouble(value.substring(4).trim());
+            if (!(mean >= 1) || mean > MAX_TICKETS) {
+                throw new IllegalArgumentException("The mean ticket count must be within 1.." + MAX_TICKETS + ": " + value);
+            }
+            return new TicketDistribution(1, MAX_TICKETS, mean);
+        }
+        int range = value.indexOf("..");
+        if (range < 0) {
+            int tickets = Integer.parseInt(value);
+            return new TicketDistribution(tickets, tickets, 0);
+        }
+        return new TicketDistribution(Integer.parseInt(value.substring(0, range).trim()),
+                Integer.parseInt(value.substring(range + 2).trim()), 0);
+    }
+
+    /**
+     * @return the ticket count of a new process, drawn from `random`
+     */
+    int next(SplittableRandom random) {
+        if (mean > 0) {
+            double tickets = Math.ceil(-mean * Math.log(1.0 - random.nextDouble()));
+            return (int) Math.max(1, Math.min(tickets, MAX_TICKETS));
+        }
+        return min == max ? min : min + random.nextInt(max - min + 1);
+    }
+
+    @Override
+    public String toString() {
+        if (mean > 0) {
+            return "exp:" + mean;
+        }
+        return min == max ? String.valueOf(min) : min + ".." + max;
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * The runnable processes of the lottery scheduler and their tickets, in a Fenwick tree (binary indexed tree) over
+ * process handles. Queueing or removing a process updates O(log n) prefix sums, and the winner of a draw - the
+ * process whose tickets cover a number in [0, total tickets) - is found by descending the tree in O(log n), with
+ * no walk over the queued processes.
+ *
+ * Like the other ready queues it stores no objects; the arrays are indexed by handle and only grow with the
+ * process table.
+ */
+
+final class TicketTree {
+    private long[] tree = new long[65];    // 1-based: tree[i] holds the tickets of handles (i - lowbit(i), i - 1]
+    private int[] tickets = new int[64];    // tickets of each queued handle, 0 if not queued
+    private long totalTickets;
+    private int size;
+
+    void insert(int p, int count) {
+        if (p >= tickets.length) {
+            grow(Math.max(p + 1, tickets.length * 2));
+        }
+        tickets[p] = count;
+        add(p, count);
+        totalTickets += count;
+        size++;
+    }
+
+    void remove(int p) {
+        int count = tickets[p];
+        tickets[p] = 0;
+        add(p, -count);
+        totalTickets -= count;
+        size--;
+    }
+
+    /**
+     * @return the process holding ticket number `ticket`, in [0, total tickets): the first handle whose prefix sum
+     * of tickets exceeds it
+     */
+    int find(long ticket) {
+        int n = tickets.length;
+        int index = 0;
+        for (int step = Integer.highestOneBit(n); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= n && tree[next] <= ticket) {
+                index = next;
+                ticket -= tree[next];
+            }
+        }
+        // prefix(index) <= ticket < prefix(index + 1): the winner is at 1-based position index + 1, i.e. handle index
+        return index;
+    }
+
+    long getTotalTickets() {
+        return totalTickets;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void add(int p, long delta) {
+        for (int i = p + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Grows to `capacity` handles and rebuilds the prefix sums in O(capacity).
+     */
+    private void grow(int capacity) {
+        tickets = Arrays.copyOf(tickets, capacity);
+        tree = new long[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += tickets[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
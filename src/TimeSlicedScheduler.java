@@ -0,0 +1,147 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * Common part of the schedulers that run a process for a quantum at a time - Round Robin, MLFQ, lottery and
+ * stride. When a process is put on the CPU either its completion or the end of its quantum is scheduled, whichever
+ * comes first; at the end of a quantum the process goes back into the ready queue and the next one runs. An
+ * arrival never preempts the running process, it waits at most until the quantum ends.
+ *
+ * The subclasses decide which process runs next and for how long (`getQuantum`), and are told when a quantum is
+ * used up (`onQuantumExpired`).
+ *
+ * A scheduler for which the end of a quantum changes nothing but the remaining time of a process that is alone on
+ * the CPU (`coalescesQuanta`) skips the `TimeSliceOccurrence` events in which that process would just get the CPU
+ * back: one event is scheduled at the last quantum boundary before the next pending event (or the end of the run),
+ * and the skipped boundaries are replayed when it fires - the time-weighted statistics, the remaining time and the
+ * event log see every boundary, with the same floating-point sums, in the same order. Runs are bit for bit the same
+ * as without the fast path; they only handle fewer events.
+ */
+
+abstract class TimeSlicedScheduler extends SchedulingAlgorithm {
+    private int skippedQuanta;           // quantum boundaries before the pending time slice that have no event
+    private double skippedFrom;          // the time the running process was put on the CPU
+
+    TimeSlicedScheduler(ProcessTable processTable) {
+        super(processTable);
+    }
+
+    @Override
+    public void onArrival(int p, double now) {
+        addProcessToReadyQueue(p);
+        if (!cpu.isBusy()) {
+            cpu.setMyProcess(getNextProcessForCPU());
+            cpu.setBusy(true);
+            runProcess(now);
+        } // end if CPU is IDLE
+    }
+
+    @Override
+    public void onCompletion(int payload, double now) {
+        if (!cpu.isBusy()) {
+            return;
+        }
+        context.completeProcess(cpu.getMyProcess());
+        cpu.setMyProcess(ProcessTable.NO_PROCESS);
+
+        cpu.setBusy(false);
+
+        if (!isReadyQueueEmpty()) {
+            cpu.setMyProcess(getNextProcessForCPU());
+            cpu.setBusy(true);
+            runProcess(now);
+        }
+    }
+
+    @Override
+    public void onTimeSlice(int payload, double now) {
+        int p = cpu.getMyProcess();
+        if (skippedQuanta > 0) {
+            replaySkippedQuanta(p);
+        }
+        processTable.setRemainingCpuTime(p, processTable.getRemainingCpuTime(p) - getQuantum(p));
+        if (eventLog != null) {
+            eventLog.record(LogRecordType.TIME_SLICE, now, p, 0);
+        }
+        onQuantumExpired(p);
+        addProcessToReadyQueue(p);
+        cpu.setMyProcess(getNextProcessForCPU());
+        runProcess(now);
+    }
+
+    /**
+     * The state of the system did not change at the skipped quantum boundaries, but the statistics must still be
+     * added up at each of them to get exactly the sums the events would have given.
+     */
+    @Override
+    void recordStateUntil(double now, double busyFraction, int queuedProcesses, int liveProcesses) {
+        if (skippedQuanta > 0) {
+            double quantum = getQuantum(cpu.getMyProcess());
+            double t = skippedFrom;
+            for (int i = 0; i < skippedQuanta; i++) {
+                t += quantum;
+                super.recordStateUntil(t, busyFraction, queuedProcesses, liveProcesses);
+            }
+        }
+        super.recordStateUntil(now, busyFraction, queuedProcesses, liveProcesses);
+    }
+
+    /**
+     * @return true if a process alone on the CPU may run for several quanta without an event at every boundary
+     */
+    boolean coalescesQuanta() {
+        return false;
+    }
+
+    /**
+     * Sets the times of the process just put on the CPU and schedules its completion, if it finishes within its
+     * quantum, or else the end of the quantum - or of the last quantum it is sure to run alone for.
+     */
+    private void runProcess(double now) {
+        int p = cpu.getMyProcess();
+        checkIfReturningAndSetTimes(p, now);
+        double quantum = getQuantum(p);
+        double remaining = processTable.getRemainingCpuTime(p);
+        if (remaining - quantum <= 0) {
+            eventQueue.insertEvent(EventType.ProcessCompletion, now + remaining, p);
+            return;
+        }
+
+        double end = now + quantum;
+        if (coalescesQuanta() && isReadyQueueEmpty()) {
+            // walk the boundaries with the same additions the events would make: a boundary is skipped if the
+            // process goes on after it and the next one still comes before anything else can happen
+            double horizon = Math.min(eventQueue.safelyPeekAtNextEventTime(), context.getStopTime());
+            while (true) {
+                double nextRemaining = remaining - quantum;
+                double nextEnd = end + quantum;
+                if (nextRemaining - quantum <= 0 || nextEnd >= horizon) {
+                    break;
+                }
+                remaining = nextRemaining;
+                end = nextEnd;
+                skippedQuanta++;
+            }
+            skippedFrom = now;
+        }
+        eventQueue.insertEvent(EventType.TimeSliceOccurrence, end, p);
+    }
+
+    /**
+     * Does what the skipped `TimeSliceOccurrence` events would have done to the process - with no other process
+     * ready, it got the CPU straight back every time.
+     */
+    private void replaySkippedQuanta(int p) {
+        double quantum = getQuantum(p);
+        double t = skippedFrom;
+        for (int i = 0; i < skippedQuanta; i++) {
+            t += quantum;
+            processTable.setRemainingCpuTime(p, processTable.getRemainingCpuTime(p) - quantum);
+            if (eventLog != null) {
+                eventLog.record(LogRecordType.TIME_SLICE, t, p, 0);
+                eventLog.record(LogRecordType.DISPATCH, t, p, 0);
+            }
+        }
+        processTable.setRestartTime(p, t);
+        skippedQuanta = 0;
+    }
+}
@@ -0,0 +1,52 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * Time-weighted average of a quantity that changes only at events, such as the length of a queue. Before every
+ * event the value that held since the previous event is added to the integral, weighted by how long it held, so
+ * the integral divided by the elapsed time is the exact average over the run - no sampling, no Little's-law
+ * estimate. The largest value that held for any time is kept too.
+ */
+
+final class TimeWeightedStatistic {
+    private final CompensatedSum integral = new CompensatedSum();
+    private double lastTime;
+    private double start;        // time from which the average is taken
+    private double max;
+
+    /**
+     * Adds `value * (now - time of the previous call)` to the integral: `value` is the quantity as it was since
+     * the previous call, and `now` the time of the event about to change it.
+     */
+    void record(double now, double value) {
+        integral.add(value * (now - lastTime));
+        lastTime = now;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    double getIntegral() {
+        return integral.getSum();
+    }
+
+    /**
+     * @return the time-weighted average over [start, totalTime], where start is 0 unless the statistic was reset
+     */
+    double getAverage(double totalTime) {
+        return totalTime > start ? integral.getSum() / (totalTime - start) : 0;
+    }
+
+    double getMax() {
+        return max;
+    }
+
+    /**
+     * Forgets everything recorded so far and averages from `now` on.
+     */
+    void reset(double now) {
+        integral.reset();
+        lastTime = now;
+        start = now;
+        max = 0;
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * Replays a recorded workload: a trace of (arrival time, CPU burst) records, in seconds and in order of arrival.
+ * Two formats are read:
+ *      - binary (the default): 16-byte records of two little-endian IEEE 754 doubles, arrival then burst, with no
+ *        header - compact and read without any parsing;
+ *      - CSV (a file ending in `.csv`): one `arrival,burst` record per line; blank lines, lines starting with `#`
+ *        and a header line are skipped.
+ *
+ * The file is read through a memory-mapped `FileChannel`, one window of at most 1 GiB at a time, and only the
+ * next record is decoded, when the simulation schedules the next arrival. So a trace of 10^9 records (16 GB in
+ * binary) replays in constant heap, and the operating system streams the pages in ahead of the reader.
+ */
+
+final class TraceArrivals implements ArrivalSource {
+    static final int RECORD_BYTES = 16;
+    private static final long WINDOW_BYTES = 1L << 30;    // a multiple of RECORD_BYTES
+
+    private final String path;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final boolean csv;
+
+    private MappedByteBuffer window;
+    private long windowEnd;                // file offset just past the mapped window
+    private final StringBuilder line = new StringBuilder();   // CSV only
+
+    private long records;                  // records read so far
+    private double lastArrival = Double.NEGATIVE_INFINITY;
+    private double recordArrival;          // the record read last
+    private double recordBurst;
+    private double burst;                  // burst of the process arriving now
+
+    private TraceArrivals(String path, boolean csv) throws IOException {
+        this.path = path;
+        this.csv = csv;
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        fileSize = channel.size();
+        if (!csv && fileSize % RECORD_BYTES != 0) {
+            channel.close();
+            throw new IOException(path + ": a binary trace must consist of " + RECORD_BYTES + "-byte records");
+        }
+    }
+
+    /**
+     * Opens the trace at `path`, as CSV if the name ends in `.csv` and as binary otherwise.
+     */
+    static TraceArrivals open(String path) throws IOException {
+        return new TraceArrivals(path, path.toLowerCase().endsWith(".csv"));
+    }
+
+    @Override
+    public double firstArrivalTime() {
+        return readRecord() ? recordArrival : Double.NaN;
+    }
+
+    @Override
+    public double nextArrivalTime(double now) {
+        burst = recordBurst;
+        return readRecord() ? recordArrival : Double.NaN;
+    }
+
+    @Override
+    public double nextBurstTime() {
+        return burst;
+    }
+
+    long getRecordsRead() {
+        return records;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the next record into `recordArrival` and `recordBurst`.
+     * @return false at the end of the trace
+     */
+    private boolean readRecord() {
+        try {
+            boolean found = csv ? readCsvRecord() : readBinaryRecord();
+            if (!found) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        records++;
+        if (!(recordArrival >= lastArrival) || Double.isInfinite(recordArrival)) {
+            throw new IllegalArgumentException(path + ", record " + records
+                    + ": arrival times must be finite and in order, got " + recordArrival + " after " + lastArrival);
+        }
+        if (!(recordBurst >= 0) || Double.isInfinite(recordBurst)) {
+            throw new IllegalArgumentException(path + ", record " + records + ": invalid burst time " + recordBurst);
+        }
+        lastArrival = recordArrival;
+        return true;
+    }
+
+    private boolean readBinaryRecord() throws IOException {
+        // windows are a whole number of records long, so a record never straddles two of them
+        if ((window == null || !window.hasRemaining()) && !mapNextWindow()) {
+            return false;
+        }
+        recordArrival = window.getDouble();
+        recordBurst = window.getDouble();
+        return true;
+    }
+
+    private boolean readCsvRecord() throws IOException {
+        while (readLine()) {
+            int start = 0;
+            while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+                start++;
+            }
+            if (start == line.length() || line.charAt(start) == '#'
+                    || (records == 0 && Character.isLetter(line.charAt(start)))) {
+                continue;   // blank, comment or header
+            }
+            int comma = line.indexOf(",", start);
+            if (comma < 0) {
+                throw new IllegalArgumentException(path + ": expected `arrival,burst`, got: " + line);
+            }
+            int end = line.indexOf(",", comma + 1);
+            recordArrival = Double.parseDouble(line.substring(start, comma).trim());
+            recordBurst = Double.parseDouble(line.substring(comma + 1, end < 0 ? line.length() : end).trim());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the next line of the file into `line`, without the line terminator.
+     * @return false at the end of the file
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        boolean any = false;
+        while (true) {
+            if ((window == null || !window.hasRemaining()) && !mapNextWindow()) {
+                return any;
+            }
+            any = true;
+            byte b = window.get();
+            if (b == '\n') {
+                return true;
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+    }
+
+    private boolean mapNextWindow() throws IOException {
+        if (windowEnd >= fileSize) {
+            return false;
+        }
+        long size = Math.min(WINDOW_BYTES, fileSize - windowEnd);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowEnd, size);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowEnd += size;
+        return true;
+    }
+
+    /**
+     * Converts the CSV trace at `csvPath` to the binary format at `binaryPath`.
+     * @return the number of records written
+     */
+    static long convertToBinary(String csvPath, String binaryPath) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try (TraceArrivals in = new TraceArrivals(csvPath, true);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(binaryPath), 1 << 16)) {
+            while (in.readRecord()) {
+                record.clear();
+                record.putDouble(in.recordArrival).putDouble(in.recordBurst);
+                out.write(record.array());
+            }
+            return in.records;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+import java.util.Arrays;
+
+/***
+ * @author Jack Shendrikov
+ *
+ * The runnable processes of the CFS scheduler, ordered by virtual runtime in a left-leaning red-black tree
+ * (R. Sedgewick, 2008). Like the ready queues, the tree stores no objects: the nodes are process handles and the
+ * links and colours live in arrays indexed by handle, so insert and remove-min are O(log n) and allocate nothing
+ * once the arrays have grown to the size of the process table.
+ *
+ * Processes with equal virtual runtime are ordered by insertion, so they are picked first-in first-out.
+ */
+
+final class VruntimeTree {
+    private static final int NIL = -1;
+
+    private final ProcessTable processTable;
+    private int[] left = new int[64];
+    private int[] right = new int[64];
+    private boolean[] red = new boolean[64];
+    private long[] seq = new long[64];
+    private long nextSeq;
+    private int root = NIL;
+    private int size;
+    private double totalWeight;               // sum of the weights of the processes in the tree
+
+    VruntimeTree(ProcessTable processTable) {
+        this.processTable = processTable;
+    }
+
+    void insert(int p) {
+        if (p >= left.length) {
+            int capacity = Math.max(p + 1, left.length * 2);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            red = Arrays.copyOf(red, capacity);
+            seq = Arrays.copyOf(seq, capacity);
+        }
+        seq[p] = nextSeq++;
+        root = insert(root, p);
+        red[root] = false;
+        size++;
+        totalWeight += processTable.getWeight(p);
+    }
+
+    /**
+     * @return the process with the smallest virtual runtime, removed, or `ProcessTable.NO_PROCESS` if empty
+     */
+    int removeMin() {
+        if (root == NIL) {
+            return ProcessTable.NO_PROCESS;
+        }
+        int min = peekMin();
+        if (!isRed(left[root]) && !isRed(right[root])) {
+            red[root] = true;
+        }
+        root = deleteMin(root);
+        if (root != NIL) {
+            red[root] = false;
+        }
+        size--;
+        totalWeight -= processTable.getWeight(min);
+        return min;
+    }
+
+    /**
+     * @return the process with the smallest virtual runtime, or `ProcessTable.NO_PROCESS` if empty
+     */
+    int peekMin() {
+        if (root == NIL) {
+            return ProcessTable.NO_PROCESS;
+        }
+        int h = root;
+        while (left[h] != NIL) {
+            h = left[h];
+        }
+        return h;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    double getTotalWeight() {
+        return totalWeight;
+    }
+
+    private boolean less(int a, int b) {
+        double va = processTable.getVruntime(a);
+        double vb = processTable.getVruntime(b);
+        return va < vb || (va == vb && seq[a] < seq[b]);
+    }
+
+    private boolean isRed(int h) {
+        return h != NIL && red[h];
+    }
+
+    private int insert(int h, int p) {
+        if (h == NIL) {
+            left[p] = NIL;
+            right[p] = NIL;
+            red[p] = true;
+            return p;
+        }
+        if (less(p, h)) {
+            left[h] = insert(left[h], p);
+        } else {
+            right[h] = insert(right[h], p);
+        }
+        return balance(h);
+    }
+
+    private int deleteMin(int h) {
+        if (left[h] == NIL) {
+            return NIL;
+        }
+        if (!isRed(left[h]) && !isRed(left[left[h]])) {
+            h = moveRedLeft(h);
+        }
+        left[h] = deleteMin(left[h]);
+        return balance(h);
+    }
+
+    private int moveRedLeft(int h) {
+        flipColors(h);
+        if (isRed(left[right[h]])) {
+            right[h] = rotateRight(right[h]);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private int balance(int h) {
+        if (isRed(right[h]) && !isRed(left[h])) {
+            h = rotateLeft(h);
+        }
+        if (isRed(left[h]) && isRed(left[left[h]])) {
+            h = rotateRight(h);
+        }
+        if (isRed(left[h]) && isRed(right[h])) {
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private int rotateLeft(int h) {
+        int x = right[h];
+        right[h] = left[x];
+        left[x] = h;
+        red[x] = red[h];
+        red[h] = true;
+        return x;
+    }
+
+    private int rotateRight(int h) {
+        int x = left[h];
+        left[h] = right[x];
+        right[x] = h;
+        red[x] = red[h];
+        red[h] = true;
+        return x;
+    }
+
+    private void flipColors(int h) {
+        red[h] = !red[h];
+        red[left[h]] = !red[left[h]];
+        red[right[h]] = !red[right[h]];
+    }
+}
@@ -0,0 +1,133 @@
+/***
+ * @author Jack Shendrikov
+ *
+ * Finds the end of the warm-up period of a run while it goes on, with the MSER-5 rule (marginal standard error
+ * rule on batch means of 5 observations). The system starts empty, so the first completions are faster than in
+ * steady state and bias every average; MSER picks the truncation point d that minimizes
+ *
+ *      MSER(d) = sum_{i >= d} (Z_i - mean of Z_d..Z_{n-1})^2 / (n - d)^2
+ *
+ * over the batch means Z_0..Z_{n-1} of the turnaround times seen so far - the point after which the remaining
+ * series has the narrowest confidence interval of its mean.
+ *
+ * Memory is bounded: at most `MAX_BATCHES` batch means are kept, and when they fill up, adjacent pairs are merged,
+ * so the batches double in size (5, 10, 20, ... observations) instead of growing in number. The rule is evaluated
+ * every `CHECK_INTERVAL` batches, in O(MAX_BATCHES). The search is restricted to the first half of the batches, as
+ * the estimate from the last few is unreliable; a minimum at the edge of that half means the series is still
+ * trending, e.g. in an overloaded run, and the warm-up is not over yet; so is a series whose two halves after the
+ * truncation point differ in their means. Once a truncation point is found the detector reports it once and ignores
+ * any further observations.
+ */
+
+final class WarmupDetector {
+    static final int BATCH_SIZE = 5;
+    private static final int MAX_BATCHES = 1024;       // even, so the batches can be merged in pairs
+    private static final int MIN_BATCHES = 64;         // no decision on fewer than 320 observations
+    private static final int CHECK_INTERVAL = 32;
+    private static final double LEVEL_Z = 2;
+
+    private final double[] means = new double[MAX_BATCHES];
+    private final double[] endTimes = new double[MAX_BATCHES];     // time of the last observation of each batch
+    private int batches;
+    private int observationsPerBatch = BATCH_SIZE;
+    private double partialSum;
+    private int partialCount;
+
+    private boolean detected;
+    private double truncationTime = Double.NaN;
+
+    /**
+     * Adds an observation made at `time`.
+     * @return true if this observation completed the warm-up: the caller should now reset its statistics
+     */
+    boolean add(double value, double time) {
+        if (detected) {
+            return false;
+        }
+        partialSum += value;
+        if (++partialCount < observationsPerBatch) {
+            return false;
+        }
+        means[batches] = partialSum / partialCount;
+        endTimes[batches] = time;
+        batches++;
+        partialSum = 0;
+        partialCount = 0;
+        if (batches == MAX_BATCHES) {
+            mergeBatches();
+        }
+        return batches >= MIN_BATCHES && batches % CHECK_INTERVAL == 0 && findTruncationPoint();
+    }
+
+    /**
+     * @return the time of the truncation point: observations up to it belong to the warm-up, NaN if none was found
+     */
+    double getTruncationTime() {
+        return truncationTime;
+    }
+
+    private void mergeBatches() {
+        for (int i = 0; i < MAX_BATCHES / 2; i++) {
+            means[i] = 0.5 * (means[2 * i] + means[2 * i + 1]);
+            endTimes[i] = endTimes[2 * i + 1];
+        }
+        batches = MAX_BATCHES / 2;
+        observationsPerBatch *= 2;
+    }
+
+    /**
+     * MSER alone accepts a truncation point early in a run whose trend is still hidden in the noise, and in an
+     * overloaded run that never settles. So the series after the truncation point must also be level: the means of
+     * its first and second half must agree within `LEVEL_Z` standard errors. The batch means are positively
+     * correlated, which makes the standard error too small and the check stricter, never looser.
+     */
+    private boolean isLevel(int from) {
+        int mid = (from + batches) / 2;
+        RunningStatistic first = new RunningStatistic();
+        RunningStatistic second = new RunningStatistic();
+        for (int i = from; i < batches; i++) {
+            (i < mid ? first : second).add(means[i]);
+        }
+        double standardError = Math.sqrt(first.getVariance() / first.getCount()
+                + second.getVariance() / second.getCount());
+        return Math.abs(first.getMean() - second.getMean()) <= LEVEL_Z * standardError;
+    }
+
+    private boolean findTruncationPoint() {
+        int n = batches;
+        int half = n / 2;
+        // sums over the suffix Z_d..Z_{n-1}, grown from the end; the mean of the whole series is subtracted first
+        // so that the sum of squares does not cancel
+        double offset = 0;
+        for (int i = 0; i < n; i++) {
+            offset += means[i];
+        }
+        offset /= n;
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int i = n - 1; i > half; i--) {
+            double z = means[i] - offset;
+            sum += z;
+            sumOfSquares += z * z;
+        }
+        int best = half;
+        double bestMser = Double.POSITIVE_INFINITY;
+        for (int d = half; d >= 0; d--) {
+            double z = means[d] - offset;
+            sum += z;
+            sumOfSquares += z * z;
+            int k = n - d;
+            double mser = (sumOfSquares - sum * sum / k) / ((double) k * k);
+            if (mser <= bestMser) {
+                bestMser = mser;
+                best = d;
+            }
+        }
+        if (best >= half || !isLevel(best)) {
+            return false;
+        }
+        detected = true;
+        truncationTime = best == 0 ? 0 : endTimes[best - 1];
+        return true;
+    }
+}